@@ -0,0 +1,54 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection sampling ({@link LottoEngine#generateMask()}) against single-call unranking
+ * ({@link Combinadic#sampleMask(Random)}), plus the cost of ranking a ticket.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinadicBenchmark {
+
+    private Random random;
+    private LottoEngine engine;
+    private long mask;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        engine = new LottoEngine(new Random(42));
+        mask = LottoEngine.toMask(new int[]{7, 14, 21, 28, 35, 42});
+    }
+
+    @Benchmark
+    public long rejectionSample() {
+        return engine.generateMask();
+    }
+
+    @Benchmark
+    public long unrankSample() {
+        return Combinadic.DEFAULT.sampleMask(random);
+    }
+
+    @Benchmark
+    public int rank() {
+        return Combinadic.DEFAULT.rank(mask);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full C(50, 6) sweep of {@link CombinationEnumerator#tierCounts(long)} on one thread and on every core.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinationEnumeratorBenchmark {
+
+    private ForkJoinPool single;
+    private CombinationEnumerator sequential;
+    private CombinationEnumerator parallel;
+    private long ticket;
+
+    @Setup
+    public void setUp() {
+        single = new ForkJoinPool(1);
+        sequential = new CombinationEnumerator(Combinadic.DEFAULT, single);
+        parallel = new CombinationEnumerator();
+        ticket = LottoEngine.toMask(new int[]{7, 14, 21, 28, 35, 42});
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+    }
+
+    @Benchmark
+    public long[] sweepOneThread() {
+        return sequential.tierCounts(ticket);
+    }
+
+    @Benchmark
+    public long[] sweepAllCores() {
+        return parallel.tierCounts(ticket);
+    }
+}
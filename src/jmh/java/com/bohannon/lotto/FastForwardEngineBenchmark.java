@@ -0,0 +1,45 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated drawings per second of {@link FastForwardEngine}, comparable with
+ * {@link LottoEngineBenchmark#runDrawings()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FastForwardEngineBenchmark {
+
+    static final int BATCH = 1 << 20;
+
+    private FastForwardEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new FastForwardEngine(new Random(42));
+        engine.setPicks(new int[]{7, 14, 21, 28, 35, 42});
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long runDrawings() {
+        return engine.runDrawings(BATCH);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawings per second of {@link GameEngine} per game matrix. The {@code default} row should match
+ * {@link LottoEngineBenchmark#runDrawings()}, showing the game abstraction costs the 6-of-50 game nothing;
+ * {@code 6of90} exercises the generic bitset kernel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameEngineBenchmark {
+
+    static final int BATCH = 1024;
+
+    @Param({"default", "6of49", "7of35", "powerball", "6of90"})
+    public String game;
+
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        GameSpec spec;
+        switch (game) {
+            case "6of49":
+                spec = GameSpec.LOTTO_6_OF_49;
+                break;
+            case "7of35":
+                spec = GameSpec.LOTTO_7_OF_35;
+                break;
+            case "powerball":
+                spec = GameSpec.POWERBALL;
+                break;
+            case "6of90":
+                spec = new GameSpec("6 of 90", 6, 90, 0, 104, Arrays.asList(new PrizeTier("6", 6, false, 0)));
+                break;
+            default:
+                spec = GameSpec.DEFAULT;
+                break;
+        }
+        engine = new GameEngine(spec, new Random(42));
+        engine.generateQuickPick();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int runDrawings() {
+        return engine.runDrawings(BATCH);
+    }
+}
@@ -0,0 +1,126 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded throughput of the {@link LottoEngine} hot paths.
+ * Run with the GC profiler ({@code -prof gc}, the profile default) to see the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LottoEngineBenchmark {
+
+    static final int BATCH = 1024;
+
+    private LottoEngine engine;
+    private int[] picks;
+    private int[] winners;
+    private long picksMask;
+    private long winnersMask;
+    private long[] draws;
+    private SimulationMetrics metrics;
+    private int candidate;
+    private int matches;
+
+    @Setup
+    public void setUp() {
+        engine = new LottoEngine(new Random(42));
+        picks = new int[]{7, 14, 21, 28, 35, 42};
+        winners = new int[]{3, 14, 22, 28, 41, 42};
+        picksMask = LottoEngine.toMask(picks);
+        winnersMask = LottoEngine.toMask(winners);
+        draws = new long[BATCH];
+        engine.setPicks(picks);
+        metrics = new SimulationMetrics(1);
+    }
+
+    @Benchmark
+    public boolean numberAlreadyUsed() {
+        candidate = candidate % LottoEngine.MAX_NUMBER + 1;
+        return engine.numberAlreadyUsed(candidate, winners, LottoEngine.NUM_PICKS);
+    }
+
+    @Benchmark
+    public int countMatchesArrays() {
+        return engine.countMatches(picks, winners);
+    }
+
+    @Benchmark
+    public int countMatchesMasks() {
+        return LottoEngine.countMatches(picksMask, winnersMask);
+    }
+
+    @Benchmark
+    public int[] generateNumbers() {
+        return engine.generateNumbers();
+    }
+
+    @Benchmark
+    public int runOneDrawing() {
+        return engine.runOneDrawing();
+    }
+
+    @Benchmark
+    public boolean recordMatches() {
+        matches = (matches + 1) % 7;
+        return engine.recordMatches(matches);
+    }
+
+    /**
+     * {@code runDrawings} stops early after a jackpot, so each of these runs the rest of the batch to keep
+     * exactly {@link #BATCH} drawings per invocation.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int runDrawings() {
+        int ran = engine.runDrawings(BATCH);
+        while (ran < BATCH) {
+            ran += engine.runDrawings(BATCH - ran);
+        }
+        return ran;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int runDrawingsIntoBuffer() {
+        int ran = engine.runDrawings(BATCH, draws, 0);
+        while (ran < BATCH) {
+            ran += engine.runDrawings(BATCH - ran, draws, ran);
+        }
+        return ran;
+    }
+
+    /**
+     * {@link #runDrawings()} with the per-batch {@link SimulationMetrics} bookkeeping the CLI does;
+     * batches here are far smaller than the CLI's, so this bounds the instrumentation overhead from above.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int runDrawingsMetered() {
+        SimulationResult before = SimulationResult.of(engine);
+        long start = System.nanoTime();
+        int ran = engine.runDrawings(BATCH);
+        while (ran < BATCH) {
+            ran += engine.runDrawings(BATCH - ran);
+        }
+        metrics.recordBatch(before, SimulationResult.of(engine), System.nanoTime() - start);
+        return ran;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawings per second of {@link ParallelSimulator} at different partition counts.
+ * Compare against {@code partitions=1} to check scaling, and across generator algorithms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSimulatorBenchmark {
+
+    static final int DRAWINGS = 1 << 22;
+
+    @Param({"1", "2", "4", "8"})
+    public int partitions;
+
+    @Param({"Random", "L64X128MixRandom", "Xoroshiro128PlusPlus"})
+    public String algorithm;
+
+    private ParallelSimulator simulator;
+    private int[] picks;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        simulator = new ParallelSimulator(partitions, algorithm);
+        picks = new int[]{7, 14, 21, 28, 35, 42};
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DRAWINGS)
+    public SimulationResult run() throws InterruptedException {
+        return simulator.run(DRAWINGS, picks, seed++);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bohannon.lotto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tickets scored per second when one draw is evaluated against a large {@link TicketBook},
+ * and for the scalar and best available {@link MaskScorer} kernels on the same masks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TicketBookBenchmark {
+
+    static final int TICKETS = 1 << 16;
+
+    private TicketBook book;
+    private LottoEngine engine;
+    private long[] tierCounts;
+    private long[] masks;
+
+    @Setup
+    public void setUp() {
+        engine = new LottoEngine(new Random(42));
+        book = TicketBook.quickPicks(engine, TICKETS);
+        tierCounts = new long[LottoEngine.NUM_PICKS + 1];
+        masks = new long[TICKETS];
+        for (int i = 0; i < TICKETS; i++) {
+            masks[i] = book.getMask(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public long[] score() {
+        book.score(engine.generateMask(), tierCounts);
+        return tierCounts;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public long[] scoreScalar() {
+        MaskScorer.scalar().score(engine.generateMask(), masks, 0, TICKETS, tierCounts);
+        return tierCounts;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public long[] scoreBest() {
+        MaskScorer.best().score(engine.generateMask(), masks, 0, TICKETS, tierCounts);
+        return tierCounts;
+    }
+}
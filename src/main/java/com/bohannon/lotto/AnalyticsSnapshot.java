@@ -0,0 +1,159 @@
+package com.bohannon.lotto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable result of {@link DrawAnalytics#snapshot()}: how often each number, pair and triple came up,
+ * and how long each number has gone without coming up. Numbers are 1 to {@link LottoEngine#MAX_NUMBER}.
+ */
+public final class AnalyticsSnapshot {
+
+    private static final int NUMBERS = DrawAnalytics.NUMBERS;
+    private static final int TRIPLES_PER_PAIR = LottoEngine.NUM_PICKS - 2;
+    private static final int TRIPLES_PER_NUMBER = (LottoEngine.NUM_PICKS - 1) * (LottoEngine.NUM_PICKS - 2) / 2;
+
+    private final long drawCount;
+    private final long[] triples;
+    private final long[] pairs;
+    private final long[] numbers;
+    private final long[] currentGaps;
+    private final long[] maxGaps;
+
+    AnalyticsSnapshot(long drawCount, long[] triples, long[] currentGaps, long[] maxGaps) {
+        this.drawCount = drawCount;
+        this.triples = triples;
+        this.currentGaps = currentGaps;
+        this.maxGaps = maxGaps;
+
+        // Every pair of a draw sits in TRIPLES_PER_PAIR of its triples and every number in TRIPLES_PER_NUMBER
+        long[] pairSums = new long[DrawAnalytics.C2[NUMBERS - 1] + NUMBERS - 1];
+        long[] numberSums = new long[NUMBERS + 1];
+        int index = 0;
+        for (int z = 2; z < NUMBERS; z++) {
+            for (int y = 1; y < z; y++) {
+                for (int x = 0; x < y; x++) {
+                    long t = triples[index++];
+                    if (t != 0) {
+                        pairSums[DrawAnalytics.C2[y] + x] += t;
+                        pairSums[DrawAnalytics.C2[z] + x] += t;
+                        pairSums[DrawAnalytics.C2[z] + y] += t;
+                        numberSums[x + 1] += t;
+                        numberSums[y + 1] += t;
+                        numberSums[z + 1] += t;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < pairSums.length; i++) {
+            pairSums[i] /= TRIPLES_PER_PAIR;
+        }
+        for (int n = 1; n <= NUMBERS; n++) {
+            numberSums[n] /= TRIPLES_PER_NUMBER;
+        }
+        this.pairs = pairSums;
+        this.numbers = numberSums;
+    }
+
+    public long getDrawCount() {
+        return drawCount;
+    }
+
+    public long getNumberCount(int number) {
+        return numbers[check(number)];
+    }
+
+    public long getPairCount(int a, int b) {
+        check(a);
+        check(b);
+        if (a == b) {
+            throw new IllegalArgumentException("A pair needs two different numbers: " + a);
+        }
+        int lo = Math.min(a, b) - 1;
+        int hi = Math.max(a, b) - 1;
+        return pairs[DrawAnalytics.C2[hi] + lo];
+    }
+
+    public long getTripleCount(int a, int b, int c) {
+        long mask = (1L << check(a)) | (1L << check(b)) | (1L << check(c));
+        if (Long.bitCount(mask) != 3) {
+            throw new IllegalArgumentException("A triple needs three different numbers: " + a + "," + b + "," + c);
+        }
+        int x = Long.numberOfTrailingZeros(mask) - 1;
+        mask &= mask - 1;
+        int y = Long.numberOfTrailingZeros(mask) - 1;
+        mask &= mask - 1;
+        int z = Long.numberOfTrailingZeros(mask) - 1;
+        return triples[DrawAnalytics.C3[z] + DrawAnalytics.C2[y] + x];
+    }
+
+    /**
+     * Draws since {@code number} last came up (all draws if it never has).
+     */
+    public long getCurrentGap(int number) {
+        return currentGaps[check(number)];
+    }
+
+    /**
+     * Longest run of draws without {@code number}, including the current one.
+     */
+    public long getMaxGap(int number) {
+        return maxGaps[check(number)];
+    }
+
+    /**
+     * Mean run of draws without a given number in a fair game: (1 - p) / p with p = picks / numbers.
+     */
+    public static double getExpectedGap() {
+        return (double) (LottoEngine.MAX_NUMBER - LottoEngine.NUM_PICKS) / LottoEngine.NUM_PICKS;
+    }
+
+    /**
+     * The {@code k} numbers that came up most often, most frequent first.
+     */
+    public int[] mostFrequent(int k) {
+        return topNumbers(numbers, k);
+    }
+
+    /**
+     * The {@code k} numbers with the longest current gap, most overdue first.
+     */
+    public int[] mostOverdue(int k) {
+        return topNumbers(currentGaps, k);
+    }
+
+    /**
+     * The {@code k} pairs that came up together most often, as {a, b} with a &lt; b.
+     */
+    public List<int[]> mostFrequentPairs(int k) {
+        List<int[]> all = new ArrayList<>();
+        for (int b = 2; b <= NUMBERS; b++) {
+            for (int a = 1; a < b; a++) {
+                all.add(new int[]{a, b});
+            }
+        }
+        all.sort((p, q) -> Long.compare(getPairCount(q[0], q[1]), getPairCount(p[0], p[1])));
+        return new ArrayList<>(all.subList(0, Math.min(k, all.size())));
+    }
+
+    private static int[] topNumbers(long[] values, int k) {
+        Integer[] order = new Integer[NUMBERS];
+        for (int n = 1; n <= NUMBERS; n++) {
+            order[n - 1] = n;
+        }
+        Arrays.sort(order, (p, q) -> values[q] != values[p] ? Long.compare(values[q], values[p]) : p - q);
+        int[] top = new int[Math.min(k, NUMBERS)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    private static int check(int number) {
+        if (number < 1 || number > NUMBERS) {
+            throw new IllegalArgumentException("Number out of range: " + number);
+        }
+        return number;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bohannon.lotto;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} whose whole state can be read and restored, for checkpointing long runs.
+ * <p>
+ * It runs the same 48-bit linear congruential generator as {@link Random}, so a given seed yields
+ * exactly the same sequence, but keeps the state in a plain field instead of an {@code AtomicLong}.
+ * That makes it capturable and also drops a compare-and-set from every call; like the engines that
+ * use it, an instance must not be shared between threads. The cached second value of
+ * {@link #nextGaussian()} is not part of the captured state; the simulator never draws one.
+ */
+public class CapturableRandom extends Random {
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public CapturableRandom() {
+        super();
+    }
+
+    public CapturableRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Reseed exactly as {@link Random#setSeed(long)} does.
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * The current 48-bit generator state, to be passed to {@link #setState(long)} later.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Continue from a state returned by {@link #getState()}. Unlike {@link #setSeed(long)}
+     * the value is not scrambled.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bohannon.lotto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Saves and restores the complete state of a {@link LottoEngine} run, so a long simulation can be
+ * stopped at any point and continued later with exactly the draws it would have produced.
+ * <p>
+ * File layout (little-endian, {@link #BYTES} bytes): magic {@code "LCKP"}, format version, then the
+ * generator state, picks mask, last winners mask, drawing count and the four tier tallies as longs,
+ * and a CRC-32 of everything before it. Checkpoints are written to a temporary file, forced to disk
+ * and renamed over the previous one, so a crash mid-save leaves the last good checkpoint in place.
+ * <p>
+ * Only engines driven by a {@link CapturableRandom} can be checkpointed; the generators behind the
+ * other {@link RandomStreams} algorithms do not expose their state.
+ */
+public final class Checkpoint {
+
+    static final int MAGIC = 0x504B434C; // "LCKP" read as a little-endian int
+    static final int VERSION = 1;
+    static final int BYTES = 4 + 4 + 8 * Long.BYTES + 4;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Atomically replace the checkpoint at {@code path} with the engine's current state.
+     *
+     * @throws IllegalArgumentException if the engine's generator is not a {@link CapturableRandom}
+     */
+    public static void save(Path path, LottoEngine engine) throws IOException {
+        if (!(engine.getRandom() instanceof CapturableRandom)) {
+            throw new IllegalArgumentException("Only engines using a CapturableRandom can be checkpointed");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(((CapturableRandom) engine.getRandom()).getState())
+                .putLong(engine.getPicksMask())
+                .putLong(engine.getWinnersMask())
+                .putLong(engine.getDrawingCount())
+                .putLong(engine.getMatchesOf3())
+                .putLong(engine.getMatchesOf4())
+                .putLong(engine.getMatchesOf5())
+                .putLong(engine.getMatchesOf6());
+        buffer.putInt(crc(buffer.array(), buffer.position())).flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Rebuild an engine from a checkpoint. Its next drawing is the one the saved engine would have run next.
+     *
+     * @throws IOException if the file cannot be read, is not a checkpoint or is corrupt
+     */
+    public static LottoEngine load(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != BYTES) {
+            throw new IOException("Not a checkpoint: " + path);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+        }
+        if (buffer.getInt(BYTES - 4) != crc(bytes, BYTES - 4)) {
+            throw new IOException("Checkpoint is corrupt: " + path);
+        }
+
+        CapturableRandom random = new CapturableRandom();
+        random.setState(buffer.getLong());
+        long picksMask = buffer.getLong();
+        long winnersMask = buffer.getLong();
+        SimulationResult tallies = new SimulationResult(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong());
+        LottoEngine engine = new LottoEngine(random);
+        engine.restore(picksMask, winnersMask, tallies);
+        return engine;
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
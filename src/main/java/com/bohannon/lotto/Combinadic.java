@@ -0,0 +1,171 @@
+package com.bohannon.lotto;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Bijection between the C(n, k) tickets of a k-of-n game and the ints [0, C(n, k)), using the
+ * combinatorial number system in colexicographic order: the sorted numbers c1 &lt; c2 &lt; ... &lt; ck
+ * have rank C(c1 - 1, 1) + C(c2 - 1, 2) + ... + C(ck - 1, k).
+ * <p>
+ * A ticket's rank is a compact 4-byte key, handy for storage and for dense histograms over every
+ * combination ({@code new int[(int) size()]}). {@link #sampleMask(RandomGenerator)} draws a uniform ticket with a
+ * single {@code nextInt} call instead of rejection sampling.
+ */
+public final class Combinadic {
+
+    /** The 6-of-50 game of {@link LottoEngine}: 15,890,700 combinations. */
+    public static final Combinadic DEFAULT = new Combinadic(LottoEngine.MAX_NUMBER, LottoEngine.NUM_PICKS);
+
+    private static final int GUIDE_BITS = 12;
+
+    private final int maxNumber;
+    private final int picks;
+    private final int size;
+    // Bits 1..n, the numbers a ticket mask may hold
+    private final long numberBits;
+    // binomial[i][a] = C(a, i) for i in [0, k], a in [0, n], with a sentinel at a = n + 1
+    private final int[][] binomial;
+    // guide[i][r >>> guideShift[i]] = largest a with C(a, i) <= (r >>> guideShift[i]) << guideShift[i]
+    private final int[][] guide;
+    private final int[] guideShift;
+
+    /**
+     * @throws IllegalArgumentException if tickets do not fit a {@code long} mask or there are more than 2^31 - 1 of them
+     */
+    public Combinadic(int maxNumber, int picks) {
+        if (picks < 1 || picks > maxNumber || maxNumber >= Long.SIZE) {
+            throw new IllegalArgumentException("Unsupported game " + picks + " of " + maxNumber);
+        }
+        long total = Combinatorics.binomial(maxNumber, picks);
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("C(" + maxNumber + ", " + picks + ") does not fit an int rank");
+        }
+        this.maxNumber = maxNumber;
+        this.picks = picks;
+        this.size = (int) total;
+        this.numberBits = ((1L << maxNumber) - 1) << 1;
+        this.binomial = new int[picks + 1][maxNumber + 2];
+        for (int i = 0; i <= picks; i++) {
+            for (int a = 0; a <= maxNumber; a++) {
+                binomial[i][a] = (int) Math.min(Combinatorics.binomial(a, i), Integer.MAX_VALUE);
+            }
+            binomial[i][maxNumber + 1] = Integer.MAX_VALUE;
+        }
+
+        this.guide = new int[picks + 1][];
+        this.guideShift = new int[picks + 1];
+        for (int i = 1; i <= picks; i++) {
+            int levelSize = binomial[i][maxNumber];
+            int shift = Math.max(0, 32 - Integer.numberOfLeadingZeros(levelSize) - GUIDE_BITS);
+            int[] table = new int[(levelSize >>> shift) + 1];
+            int a = i - 1;
+            for (int b = 0; b < table.length; b++) {
+                int start = b << shift;
+                while (binomial[i][a + 1] <= start) {
+                    a++;
+                }
+                table[b] = a;
+            }
+            guide[i] = table;
+            guideShift[i] = shift;
+        }
+    }
+
+    public int getMaxNumber() {
+        return maxNumber;
+    }
+
+    public int getPicks() {
+        return picks;
+    }
+
+    /**
+     * Number of distinct tickets, C(n, k).
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Rank of a ticket given as a bitmask with bit {@code c} set for number {@code c}.
+     *
+     * @throws IllegalArgumentException unless exactly k bits are set, all of them in [1, n]
+     */
+    public int rank(long mask) {
+        if (Long.bitCount(mask) != picks || (mask & ~numberBits) != 0L) {
+            throw new IllegalArgumentException("Not a " + picks + "-of-" + maxNumber + " ticket: 0x"
+                    + Long.toHexString(mask));
+        }
+        int rank = 0;
+        int i = 1;
+        while (mask != 0L) {
+            int c = Long.numberOfTrailingZeros(mask);
+            rank += binomial[i++][c - 1];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * Rank of a ticket given as numbers in [1, n], in any order.
+     *
+     * @throws IllegalArgumentException unless the numbers are k distinct numbers in [1, n]
+     */
+    public int rank(int[] numbers) {
+        long mask = 0L;
+        for (int number : numbers) {
+            if (number < 1 || number > maxNumber) {
+                throw new IllegalArgumentException("Number out of range: " + number);
+            }
+            mask |= 1L << number;
+        }
+        if (numbers.length != picks) {
+            throw new IllegalArgumentException("Ticket must have " + picks + " numbers: " + numbers.length);
+        }
+        return rank(mask);
+    }
+
+    /**
+     * The ticket with the given rank, as a bitmask.
+     *
+     * @throws IllegalArgumentException if {@code rank} is outside [0, C(n, k))
+     */
+    public long unrankMask(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IllegalArgumentException("Rank " + rank + " outside [0, " + size + ")");
+        }
+        long mask = 0L;
+        for (int i = picks; i >= 1; i--) {
+            // Largest a with C(a, i) <= rank: the guide table gives a lower bound, at most a step or two short
+            int[] row = binomial[i];
+            int a = guide[i][rank >>> guideShift[i]];
+            while (row[a + 1] <= rank) {
+                a++;
+            }
+            rank -= row[a];
+            mask |= 1L << (a + 1);
+        }
+        return mask;
+    }
+
+    /**
+     * The ticket with the given rank, as numbers in ascending order.
+     */
+    public int[] unrank(int rank) {
+        return LottoEngine.fromMask(unrankMask(rank));
+    }
+
+    /**
+     * Draw a uniformly random ticket with one call to {@code random.nextInt}.
+     */
+    public long sampleMask(RandomGenerator random) {
+        return unrankMask(random.nextInt(size));
+    }
+
+    /**
+     * Draw a uniformly random ticket's rank.
+     */
+    public int sampleRank(RandomGenerator random) {
+        return random.nextInt(size);
+    }
+}
@@ -0,0 +1,142 @@
+package com.bohannon.lotto;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact results by exhaustive enumeration: scores a ticket, or a whole ticket book, against every possible
+ * draw of a game, C(50, 6) = 15,890,700 of them for {@link Combinadic#DEFAULT}.
+ * <p>
+ * The colex rank space [0, C(n, k)) is split recursively into ranges for a {@link ForkJoinPool}. A leaf
+ * unranks its first draw with {@link Combinadic#unrankMask(int)} and walks the rest of its range with
+ * Gosper's hack, which steps a mask to the next larger one with the same bit count, i.e. the next draw in
+ * colex order. Each draw is scored with {@link LottoEngine#countMatches(long, long)}, so nothing is
+ * allocated per draw and the tallies are exact.
+ */
+public class CombinationEnumerator {
+
+    /** Draws a fork/join leaf enumerates sequentially. */
+    static final int LEAF_SIZE = 1 << 16;
+
+    private final Combinadic game;
+    private final ForkJoinPool pool;
+
+    /**
+     * Enumerate the 6-of-50 game on the common pool.
+     */
+    public CombinationEnumerator() {
+        this(Combinadic.DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    public CombinationEnumerator(Combinadic game, ForkJoinPool pool) {
+        this.game = game;
+        this.pool = pool;
+    }
+
+    public Combinadic getGame() {
+        return game;
+    }
+
+    /**
+     * How many of all possible draws match {@code ticket} in exactly 0, 1, ... {@link Combinadic#getPicks()} numbers.
+     *
+     * @param ticket a bitmask of numbers in [1, n]; any size
+     */
+    public long[] tierCounts(long ticket) {
+        return pool.invoke(new Range(new long[]{ticket >>> 1}, 0, (int) game.size()));
+    }
+
+    public long[] tierCounts(int[] ticket) {
+        return tierCounts(LottoEngine.toMask(ticket));
+    }
+
+    /**
+     * How many of all possible draws have a best ticket in {@code book} matching exactly 0, 1, ... numbers,
+     * e.g. to price a wheel: the last entries count the draws the book wins on.
+     */
+    public long[] bestTierCounts(TicketBook book) {
+        if (book.size() == 0) {
+            throw new IllegalArgumentException("The book has no tickets");
+        }
+        long[] tickets = new long[book.size()];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = book.getMask(i) >>> 1;
+        }
+        return pool.invoke(new Range(tickets, 0, (int) game.size()));
+    }
+
+    /**
+     * {@link #tierCounts(long)} as probabilities of a uniformly random draw.
+     */
+    public double[] tierProbabilities(long ticket) {
+        long[] counts = tierCounts(ticket);
+        double[] probabilities = new double[counts.length];
+        for (int m = 0; m < counts.length; m++) {
+            probabilities[m] = (double) counts[m] / game.size();
+        }
+        return probabilities;
+    }
+
+    /**
+     * Gosper's hack: the next larger mask with the same number of set bits.
+     */
+    static long nextCombination(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        return ripple | (((ripple ^ mask) / lowest) >>> 2);
+    }
+
+    /**
+     * Tallies for draws of rank {@code [from, to)}, split in halves down to {@link #LEAF_SIZE}.
+     * Masks are kept shifted down one bit, so number 1 is bit 0 and Gosper's hack never sets an unused bit.
+     */
+    private final class Range extends RecursiveTask<long[]> {
+        private final long[] tickets;
+        private final int from;
+        private final int to;
+
+        Range(long[] tickets, int from, int to) {
+            this.tickets = tickets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                Range left = new Range(tickets, from, middle);
+                left.fork();
+                long[] right = new Range(tickets, middle, to).compute();
+                long[] tallies = left.join();
+                for (int m = 0; m < tallies.length; m++) {
+                    tallies[m] += right[m];
+                }
+                return tallies;
+            }
+
+            long[] tallies = new long[game.getPicks() + 1];
+            if (from >= to) {
+                return tallies;
+            }
+            long draw = game.unrankMask(from) >>> 1;
+            if (tickets.length == 1) {
+                long ticket = tickets[0];
+                for (int r = from; r < to; r++) {
+                    tallies[LottoEngine.countMatches(ticket, draw)]++;
+                    draw = nextCombination(draw);
+                }
+            } else {
+                for (int r = from; r < to; r++) {
+                    int best = 0;
+                    for (long ticket : tickets) {
+                        best = Math.max(best, LottoEngine.countMatches(ticket, draw));
+                    }
+                    tallies[best]++;
+                    draw = nextCombination(draw);
+                }
+            }
+            return tallies;
+        }
+    }
+}
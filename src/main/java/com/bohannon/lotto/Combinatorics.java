@@ -0,0 +1,40 @@
+package com.bohannon.lotto;
+
+/**
+ * Exact counting helpers for k-of-n lottery games.
+ */
+public final class Combinatorics {
+
+    private Combinatorics() {
+    }
+
+    /**
+     * Binomial coefficient C(n, k), or 0 when k is outside [0, n].
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0L;
+        }
+        k = Math.min(k, n - k);
+        long result = 1L;
+        for (int i = 1; i <= k; i++) {
+            // result * (n - k + i) is always divisible by i at this point
+            long numerator = result * (n - k + i);
+            if (numerator / (n - k + i) != result) {
+                throw new ArithmeticException("C(" + n + ", " + k + ") overflows a long");
+            }
+            result = numerator / i;
+        }
+        return result;
+    }
+
+    /**
+     * Probability that a single ticket of {@code picks} numbers matches exactly {@code matches}
+     * of {@code drawn} numbers drawn from a pool of {@code pool} (hypergeometric distribution).
+     */
+    public static double matchProbability(int pool, int drawn, int picks, int matches) {
+        return (double) binomial(picks, matches) * binomial(pool - picks, drawn - matches) / binomial(pool, drawn);
+    }
+}
@@ -0,0 +1,352 @@
+package com.bohannon.lotto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads a fixed-length simulation over {@link DistributedWorker} nodes connected by plain TCP.
+ * <p>
+ * The run is cut into partitions exactly as {@link ParallelSimulator} cuts it, each with its own stream from
+ * {@link RandomStreams#partition}. Partitions are handed out one at a time to whichever worker is free, their
+ * 64-bit tallies come back and are summed in partition order, so the result equals
+ * {@code new ParallelSimulator(partitions, algorithm).run(drawings, picks, masterSeed)} however many workers
+ * took part. A partition whose worker disconnects, or with a timeout goes silent, is put back at the front
+ * of the queue for the next free worker; with a timeout, a partition lost {@link #MAX_ATTEMPTS} times fails
+ * the run, since one that simply takes longer than the timeout would otherwise be handed out forever.
+ * Workers may join and leave at any time; with none connected a run simply waits.
+ * <p>
+ * Protocol ({@link DataOutputStream}, big-endian): the worker opens with {@link #MAGIC} and {@link #VERSION}.
+ * The coordinator then sends {@link #ASSIGN} (algorithm, master seed, partition, drawings, picks) or
+ * {@link #DONE}, and the worker answers each assignment with {@link #RESULT} (partition, drawings, matches of
+ * 3 to 6) or {@link #FAILED} (message), which fails the run.
+ */
+public class DistributedCoordinator implements AutoCloseable {
+
+    static final int MAGIC = 0x5453444C; // "LDST"
+    static final int VERSION = 1;
+
+    static final byte ASSIGN = 1;
+    static final byte DONE = 2;
+    static final byte RESULT = 3;
+    static final byte FAILED = 4;
+
+    /** How often an idle connection checks for work or shutdown. */
+    static final long POLL_MILLIS = 100;
+    /** Most times one partition is handed out, when a timeout is set, before the run fails. */
+    static final int MAX_ATTEMPTS = 3;
+
+    private final ServerSocket server;
+    private final int timeoutMillis;
+    private final ExecutorService connections;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final BlockingDeque<Assignment> pending = new LinkedBlockingDeque<>();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final AtomicLong reassignments = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Listen on {@code port} of every interface; 0 picks a free port.
+     */
+    public DistributedCoordinator(int port) throws IOException {
+        this(new InetSocketAddress(port), 0);
+    }
+
+    /**
+     * @param timeoutMillis longest wait for one partition's result before its worker is dropped and the
+     *                      partition reassigned, at most {@link #MAX_ATTEMPTS} times in all, or 0 to wait until
+     *                      the connection drops
+     */
+    public DistributedCoordinator(InetSocketAddress address, int timeoutMillis) throws IOException {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeoutMillis must not be negative: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+        server = new ServerSocket();
+        server.bind(address);
+        connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "lotto-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connections.execute(this::accept);
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Workers connected right now.
+     */
+    public int getWorkerCount() {
+        return workers.get();
+    }
+
+    /**
+     * Partitions put back in the queue because their worker was lost.
+     */
+    public long getReassignments() {
+        return reassignments.get();
+    }
+
+    /**
+     * Run {@code drawings} drawings against {@code picks} on the connected workers and merge the tallies.
+     * Jackpots are counted but do not stop the run. Interrupting the calling thread abandons the run;
+     * partitions already running finish on their workers and are discarded.
+     *
+     * @param partitions how many pieces to cut the run into, which fixes the streams and so the result
+     * @param algorithm  a {@link RandomStreams} algorithm name
+     * @throws IllegalArgumentException if the picks are invalid, or the algorithm unknown or unable to partition
+     * @throws IllegalStateException     if a worker could not run its partition, or with a timeout a partition
+     *                                   was lost {@link #MAX_ATTEMPTS} times
+     */
+    public SimulationResult run(long drawings, int[] picks, long masterSeed, int partitions, String algorithm)
+            throws InterruptedException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1: " + partitions);
+        }
+        if (drawings < 0) {
+            throw new IllegalArgumentException("drawings must not be negative: " + drawings);
+        }
+        for (int pick : picks) {
+            if (pick < 1 || pick > LottoEngine.MAX_NUMBER) {
+                throw new IllegalArgumentException("Pick out of range: " + pick);
+            }
+        }
+        if (picks.length != LottoEngine.NUM_PICKS || Long.bitCount(LottoEngine.toMask(picks)) != LottoEngine.NUM_PICKS) {
+            throw new IllegalArgumentException("Picks must be " + LottoEngine.NUM_PICKS + " unique numbers");
+        }
+        if (closed) {
+            throw new IllegalStateException("Coordinator is closed");
+        }
+        RandomStreams.partition(algorithm, masterSeed, 0); // fails fast where the workers would fail
+
+        Job job = new Job(algorithm, masterSeed, picks.clone(), partitions);
+        for (int p = 0; p < partitions; p++) {
+            pending.add(new Assignment(job, p, ParallelSimulator.partitionSize(drawings, partitions, p)));
+        }
+        try {
+            return job.await();
+        } finally {
+            job.cancel();
+            pending.removeIf(assignment -> assignment.job == job);
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                continue; // closed, or a failed handshake at the TCP level
+            }
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Feed one worker connection until the coordinator closes or the worker is lost.
+     */
+    private void serve(Socket socket) {
+        sockets.add(socket);
+        Assignment assignment = null;
+        boolean registered = false;
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.setSoTimeout((int) (POLL_MILLIS * 50));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            socket.setSoTimeout(timeoutMillis);
+            workers.incrementAndGet();
+            registered = true;
+
+            while (!closed) {
+                assignment = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (assignment == null || assignment.job.isFinished()) {
+                    assignment = null;
+                    continue;
+                }
+                assignment.write(out);
+                out.flush();
+                byte reply = in.readByte();
+                if (reply == RESULT) {
+                    int partition = in.readInt();
+                    SimulationResult result = new SimulationResult(in.readLong(), in.readLong(), in.readLong(),
+                            in.readLong(), in.readLong());
+                    if (partition != assignment.partition || result.getDrawingCount() != assignment.drawings) {
+                        throw new IOException("Result does not match partition " + assignment.partition);
+                    }
+                    assignment.job.complete(partition, result);
+                } else if (reply == FAILED) {
+                    assignment.job.fail(new IllegalStateException("Worker " + socket.getRemoteSocketAddress()
+                            + " failed partition " + assignment.partition + ": " + in.readUTF()));
+                } else {
+                    throw new IOException("Unexpected reply " + reply);
+                }
+                assignment = null;
+            }
+            out.writeByte(DONE);
+            out.flush();
+        } catch (IOException e) {
+            // The worker is gone or misbehaving; whatever it was running goes to another
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (assignment != null) {
+                if (timeoutMillis > 0 && ++assignment.attempts >= MAX_ATTEMPTS) {
+                    assignment.job.fail(new IllegalStateException("Partition " + assignment.partition + " was lost "
+                            + assignment.attempts + " times; its workers disconnected or took over "
+                            + timeoutMillis + " ms"));
+                } else {
+                    reassignments.incrementAndGet();
+                    pending.addFirst(assignment);
+                }
+            }
+            if (registered) {
+                workers.decrementAndGet();
+            }
+            sockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Stop accepting, tell idle workers {@link #DONE} and drop the connections of busy ones.
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+        connections.shutdown();
+        if (!connections.awaitTermination(POLL_MILLIS * 5, TimeUnit.MILLISECONDS)) {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            connections.awaitTermination(POLL_MILLIS * 5, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * One partition of one run.
+     */
+    private static final class Assignment {
+        final Job job;
+        final int partition;
+        final long drawings;
+        // Workers lost while running it; only touched by the connection thread holding the assignment
+        int attempts;
+
+        Assignment(Job job, int partition, long drawings) {
+            this.job = job;
+            this.partition = partition;
+            this.drawings = drawings;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(ASSIGN);
+            out.writeUTF(job.algorithm);
+            out.writeLong(job.masterSeed);
+            out.writeInt(partition);
+            out.writeLong(drawings);
+            out.writeInt(job.picks.length);
+            for (int pick : job.picks) {
+                out.writeInt(pick);
+            }
+        }
+    }
+
+    /**
+     * The partition results of one run, filled in by the connection threads as they arrive.
+     */
+    private static final class Job {
+        final String algorithm;
+        final long masterSeed;
+        final int[] picks;
+        private final SimulationResult[] results;
+        private int remaining;
+        private RuntimeException failure;
+        private boolean cancelled;
+
+        Job(String algorithm, long masterSeed, int[] picks, int partitions) {
+            this.algorithm = algorithm;
+            this.masterSeed = masterSeed;
+            this.picks = picks;
+            this.results = new SimulationResult[partitions];
+            this.remaining = partitions;
+        }
+
+        synchronized void complete(int partition, SimulationResult result) {
+            if (!cancelled && results[partition] == null) {
+                results[partition] = result;
+                if (--remaining == 0) {
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            notifyAll();
+        }
+
+        synchronized boolean isFinished() {
+            return cancelled || failure != null || remaining == 0;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+        }
+
+        synchronized SimulationResult await() throws InterruptedException {
+            while (remaining > 0 && failure == null) {
+                wait();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            SimulationResult total = SimulationResult.EMPTY;
+            for (SimulationResult result : results) {
+                total = total.plus(result);
+            }
+            return total;
+        }
+    }
+}
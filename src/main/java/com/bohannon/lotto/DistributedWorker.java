@@ -0,0 +1,123 @@
+package com.bohannon.lotto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A node of a {@link DistributedCoordinator} run: connects to the coordinator and runs the partitions it is
+ * given, one at a time, each on a fresh {@link LottoEngine} with the partition's own stream from
+ * {@link RandomStreams#partition}. A worker keeps no state between partitions, so it can be killed at any
+ * point and the coordinator simply gives its partition to another.
+ */
+public class DistributedWorker {
+
+    private final String host;
+    private final int port;
+
+    public DistributedWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Run partitions until the coordinator says it is done.
+     *
+     * @return the number of partitions run
+     * @throws IOException if the coordinator cannot be reached or the connection drops
+     */
+    public long serve() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(DistributedCoordinator.MAGIC);
+            out.writeInt(DistributedCoordinator.VERSION);
+            out.flush();
+
+            long served = 0;
+            while (true) {
+                byte message = in.readByte();
+                if (message == DistributedCoordinator.DONE) {
+                    return served;
+                }
+                if (message != DistributedCoordinator.ASSIGN) {
+                    throw new IOException("Unexpected message " + message);
+                }
+                String algorithm = in.readUTF();
+                long masterSeed = in.readLong();
+                int partition = in.readInt();
+                long drawings = in.readLong();
+                int count = in.readInt();
+                if (count < 0 || count > LottoEngine.MAX_NUMBER) {
+                    throw new IOException("Bad pick count " + count);
+                }
+                int[] picks = new int[count];
+                for (int i = 0; i < count; i++) {
+                    picks[i] = in.readInt();
+                }
+
+                SimulationResult result;
+                try {
+                    result = ParallelSimulator.runPartition(drawings, picks,
+                            RandomStreams.partition(algorithm, masterSeed, partition));
+                } catch (RuntimeException e) {
+                    out.writeByte(DistributedCoordinator.FAILED);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                    continue;
+                }
+                out.writeByte(DistributedCoordinator.RESULT);
+                out.writeInt(partition);
+                out.writeLong(result.getDrawingCount());
+                out.writeLong(result.getMatchesOf3());
+                out.writeLong(result.getMatchesOf4());
+                out.writeLong(result.getMatchesOf5());
+                out.writeLong(result.getMatchesOf6());
+                out.flush();
+                served++;
+            }
+        }
+    }
+
+    /**
+     * Serve over {@code connections} connections at once, e.g. one per core, until the coordinator is done
+     * with all of them.
+     *
+     * @return the number of partitions run
+     */
+    public static long serve(String host, int port, int connections) throws IOException, InterruptedException {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be at least 1: " + connections);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<Long>> futures = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                futures.add(pool.submit(() -> new DistributedWorker(host, port).serve()));
+            }
+            long served = 0;
+            for (Future<Long> future : futures) {
+                served += future.get();
+            }
+            return served;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Worker connection failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.bohannon.lotto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Number, pair and triple frequencies and gap statistics, updated from the stream of draw bitmasks.
+ * <p>
+ * Each simulation thread feeds its own {@link Shard}, so updates are plain array increments with no
+ * sharing. Only triples are counted per draw, 20 increments into a {@link #TRIPLES}-entry table
+ * indexed by combinadic rank; pair and single-number counts are derived exactly when a snapshot is
+ * taken, since every pair of a draw lies in {@code NUM_PICKS - 2} of its triples and every number in
+ * {@code C(NUM_PICKS - 1, 2)} of them. {@link #snapshot()} merges the shards into an
+ * {@link AnalyticsSnapshot} without stopping the writers: it copies each shard under an optimistic
+ * {@link StampedLock} read and only falls back to a brief read lock if a batch keeps landing mid-copy.
+ */
+public class DrawAnalytics {
+
+    static final int NUMBERS = LottoEngine.MAX_NUMBER;
+    static final int TRIPLES = (int) Combinatorics.binomial(NUMBERS, 3);
+    /** Bits 1..NUMBERS, the only ones a draw mask may set. */
+    static final long VALID_NUMBERS = ((1L << NUMBERS) - 1) << 1;
+    private static final int OPTIMISTIC_TRIES = 8;
+
+    // Colex rank of zero-based x < y < z is C3[z] + C2[y] + x
+    static final int[] C2 = new int[NUMBERS];
+    static final int[] C3 = new int[NUMBERS];
+
+    static {
+        for (int i = 0; i < NUMBERS; i++) {
+            C2[i] = i * (i - 1) / 2;
+            C3[i] = i * (i - 1) * (i - 2) / 6;
+        }
+    }
+
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+
+    /**
+     * A new shard for one writer thread.
+     */
+    public Shard newShard() {
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    /**
+     * Clear every shard.
+     */
+    public void reset() {
+        for (Shard shard : shards) {
+            shard.reset();
+        }
+    }
+
+    /**
+     * Merge the current state of every shard. Counts add up; for gaps, each shard is its own timeline,
+     * so the longest gap is the longest seen in any shard and the current gap is the shortest across shards.
+     */
+    public AnalyticsSnapshot snapshot() {
+        long draws = 0;
+        long[] triples = new long[TRIPLES];
+        long[] currentGaps = new long[NUMBERS + 1];
+        long[] maxGaps = new long[NUMBERS + 1];
+        Arrays.fill(currentGaps, Long.MAX_VALUE);
+        Shard.Copy copy = new Shard.Copy();
+        boolean any = false;
+        for (Shard shard : shards) {
+            shard.copyInto(copy);
+            if (copy.draws == 0) {
+                continue;
+            }
+            any = true;
+            draws += copy.draws;
+            for (int i = 0; i < TRIPLES; i++) {
+                triples[i] += copy.triples[i];
+            }
+            for (int n = 1; n <= NUMBERS; n++) {
+                long current = copy.draws - copy.lastSeen[n];
+                currentGaps[n] = Math.min(currentGaps[n], current);
+                maxGaps[n] = Math.max(maxGaps[n], Math.max(copy.maxGaps[n], current));
+            }
+        }
+        if (!any) {
+            Arrays.fill(currentGaps, 0L);
+        }
+        return new AnalyticsSnapshot(draws, triples, currentGaps, maxGaps);
+    }
+
+    /**
+     * Single-writer accumulator. {@link #accept(long[], int, int)} takes the shard's write lock once per batch.
+     */
+    public static class Shard {
+        private final StampedLock lock = new StampedLock();
+        private final long[] triples = new long[TRIPLES];
+        // Draw index (1-based) at which each number last came up, 0 if never
+        private final long[] lastSeen = new long[NUMBERS + 1];
+        // Longest completed run of draws without each number
+        private final long[] maxGaps = new long[NUMBERS + 1];
+        private final int[] numbers = new int[LottoEngine.NUM_PICKS];
+        private long draws;
+
+        Shard() {
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code drawMask} is not {@link LottoEngine#NUM_PICKS} numbers in
+         *                                  [1, {@link LottoEngine#MAX_NUMBER}]
+         */
+        public void accept(long drawMask) {
+            checkDraw(drawMask);
+            long stamp = lock.writeLock();
+            try {
+                add(drawMask);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Add the draws {@code drawMasks[from, to)}, e.g. a batch filled by {@link LottoEngine#runDrawings(int, long[], int)}.
+         * The batch is checked before anything is added, so a bad mask leaves the shard unchanged.
+         *
+         * @throws IllegalArgumentException if any mask is not a valid draw
+         */
+        public void accept(long[] drawMasks, int from, int to) {
+            for (int i = from; i < to; i++) {
+                checkDraw(drawMasks[i]);
+            }
+            long stamp = lock.writeLock();
+            try {
+                for (int i = from; i < to; i++) {
+                    add(drawMasks[i]);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Pair and number counts are derived from the triples assuming six numbers per draw, so anything
+         * else, e.g. a malformed row from a history file, is refused rather than skewing every count.
+         */
+        private static void checkDraw(long mask) {
+            if (Long.bitCount(mask) != LottoEngine.NUM_PICKS || (mask & ~VALID_NUMBERS) != 0L) {
+                throw new IllegalArgumentException("Not a draw of " + LottoEngine.NUM_PICKS + " numbers in [1, "
+                        + NUMBERS + "]: " + Long.toHexString(mask));
+            }
+        }
+
+        private void add(long mask) {
+            long index = ++draws;
+            int count = 0;
+            while (mask != 0L) {
+                int n = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                long gap = index - lastSeen[n] - 1;
+                if (gap > maxGaps[n]) {
+                    maxGaps[n] = gap;
+                }
+                lastSeen[n] = index;
+                numbers[count++] = n - 1;
+            }
+            for (int k = 2; k < count; k++) {
+                int base = C3[numbers[k]];
+                for (int j = 1; j < k; j++) {
+                    int pair = base + C2[numbers[j]];
+                    for (int i = 0; i < j; i++) {
+                        triples[pair + numbers[i]]++;
+                    }
+                }
+            }
+        }
+
+        void reset() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(triples, 0L);
+                Arrays.fill(lastSeen, 0L);
+                Arrays.fill(maxGaps, 0L);
+                draws = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyInto(Copy copy) {
+            for (int attempt = 0; attempt < OPTIMISTIC_TRIES; attempt++) {
+                long stamp = lock.tryOptimisticRead();
+                if (stamp != 0L) {
+                    copyFields(copy);
+                    if (lock.validate(stamp)) {
+                        return;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+            long stamp = lock.readLock();
+            try {
+                copyFields(copy);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void copyFields(Copy copy) {
+            copy.draws = draws;
+            System.arraycopy(triples, 0, copy.triples, 0, TRIPLES);
+            System.arraycopy(lastSeen, 0, copy.lastSeen, 0, NUMBERS + 1);
+            System.arraycopy(maxGaps, 0, copy.maxGaps, 0, NUMBERS + 1);
+        }
+
+        static final class Copy {
+            long draws;
+            final long[] triples = new long[TRIPLES];
+            final long[] lastSeen = new long[NUMBERS + 1];
+            final long[] maxGaps = new long[NUMBERS + 1];
+        }
+    }
+}
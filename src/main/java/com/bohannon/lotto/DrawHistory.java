@@ -0,0 +1,461 @@
+package com.bohannon.lotto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Real draw history loaded from a CSV file, held as one bitmask per draw (see {@link LottoEngine#toMask(int[])})
+ * so tickets can be backtested through the engine's own tally logic.
+ * <p>
+ * The file is memory-mapped and parsed byte by byte: no line {@code String}s, no {@code split}, nothing
+ * allocated per row. Fields are separated by {@code ,}, {@code ;}, {@code |} or tabs; spaces, quotes and
+ * {@code \r} are ignored. A row's draw is {@link LottoEngine#NUM_PICKS} distinct numbers in
+ * [1, {@link LottoEngine#MAX_NUMBER}] in consecutive fields, read from a given first column or, by default,
+ * from the column where most of the file's first rows hold such a run (see {@link #detectColumn}); a row
+ * with no draw there falls back to its first run of that many distinct in-range fields. So date, draw-number
+ * and bonus columns around the numbers are passed over. Rows without a draw, such as a header, are skipped
+ * and counted.
+ * <p>
+ * Large files can be split at line boundaries into chunks parsed in parallel; the draws keep file order.
+ */
+public class DrawHistory {
+
+    /** Largest region mapped at once; also the most a single chunk covers. */
+    static final int MAX_CHUNK_BYTES = 1 << 30;
+    /** {@code firstColumn} value that finds the numbers in each row automatically. */
+    public static final int AUTO_COLUMNS = -1;
+    /** Fields of a row looked at; any further columns are ignored. */
+    static final int MAX_COLUMNS = 64;
+    /** Rows at the start of the file sampled to find the number columns. */
+    static final int SAMPLE_ROWS = 1000;
+    /** Most bytes at the start of the file sampled to find the number columns. */
+    static final int SAMPLE_BYTES = 1 << 20;
+
+    private final long[] draws;
+    private final int size;
+    private final long skippedLines;
+
+    private DrawHistory(long[] draws, int size, long skippedLines) {
+        this.draws = draws;
+        this.size = size;
+        this.skippedLines = skippedLines;
+    }
+
+    /**
+     * Parse {@code path} on the calling thread, finding the number columns automatically.
+     */
+    public static DrawHistory load(Path path) throws IOException {
+        return load(path, AUTO_COLUMNS, 1);
+    }
+
+    /**
+     * Parse {@code path} in up to {@code threads} chunks at once, finding the number columns automatically.
+     */
+    public static DrawHistory load(Path path, int threads) throws IOException {
+        return load(path, AUTO_COLUMNS, threads);
+    }
+
+    /**
+     * Parse {@code path} in up to {@code threads} chunks at once.
+     *
+     * @param firstColumn zero-based column of the first drawn number, or {@link #AUTO_COLUMNS}
+     * @throws IOException if the file cannot be read
+     */
+    public static DrawHistory load(Path path, int firstColumn, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        if (firstColumn < AUTO_COLUMNS || firstColumn > MAX_COLUMNS - LottoEngine.NUM_PICKS) {
+            throw new IllegalArgumentException("Invalid first column: " + firstColumn);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            boolean search = firstColumn == AUTO_COLUMNS;
+            int column = search ? detectColumn(channel, fileSize) : firstColumn;
+            int parts = (int) Math.max(threads, (fileSize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            long[] bounds = chunkBounds(channel, fileSize, parts);
+
+            List<Chunk> chunks = new ArrayList<>(parts);
+            if (threads == 1) {
+                for (int c = 0; c < parts; c++) {
+                    chunks.add(parse(channel, bounds[c], bounds[c + 1], column, search));
+                }
+            } else {
+                chunks = parseParallel(channel, bounds, column, search, threads);
+            }
+
+            long total = 0;
+            long skipped = 0;
+            for (Chunk chunk : chunks) {
+                total += chunk.size;
+                skipped += chunk.skipped;
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many draws in " + path + ": " + total);
+            }
+            long[] draws = new long[(int) total];
+            int at = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.draws, 0, draws, at, chunk.size);
+                at += chunk.size;
+            }
+            return new DrawHistory(draws, draws.length, skipped);
+        }
+    }
+
+    private static List<Chunk> parseParallel(final FileChannel channel, long[] bounds, final int column,
+                                             final boolean search, int threads) throws IOException {
+        int parts = bounds.length - 1;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, parts));
+        try {
+            List<Future<Chunk>> futures = new ArrayList<>(parts);
+            for (int c = 0; c < parts; c++) {
+                final long from = bounds[c];
+                final long to = bounds[c + 1];
+                futures.add(pool.submit(new Callable<Chunk>() {
+                    public Chunk call() throws IOException {
+                        return parse(channel, from, to, column, search);
+                    }
+                }));
+            }
+            List<Chunk> chunks = new ArrayList<>(parts);
+            for (Future<Chunk> future : futures) {
+                chunks.add(future.get());
+            }
+            return chunks;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("History parser failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading history", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Split {@code [0, fileSize)} into {@code parts} ranges that each start at the beginning of a line.
+     * Ranges can be empty when lines are long or the file is small.
+     */
+    static long[] chunkBounds(FileChannel channel, long fileSize, int parts) throws IOException {
+        long[] bounds = new long[parts + 1];
+        bounds[parts] = fileSize;
+        ByteBuffer scan = ByteBuffer.allocate(4096);
+        for (int c = 1; c < parts; c++) {
+            long target = Math.max(bounds[c - 1], fileSize / parts * c);
+            bounds[c] = target == 0 ? 0 : nextLineStart(channel, target - 1, fileSize, scan);
+        }
+        return bounds;
+    }
+
+    /**
+     * Offset just past the first {@code '\n'} at or after {@code position}, or {@code fileSize} if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long fileSize, ByteBuffer scan)
+            throws IOException {
+        while (position < fileSize) {
+            scan.clear();
+            int n = channel.read(scan, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Parse the whole lines in {@code [from, to)}, taking each draw from {@code column} or, if {@code search}
+     * and there is none there, from the row's first run of distinct in-range fields.
+     */
+    static Chunk parse(FileChannel channel, long from, long to, int column, boolean search) throws IOException {
+        Chunk chunk = new Chunk();
+        if (to <= from) {
+            return chunk;
+        }
+        Rows rows = new Rows(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+        while (rows.next()) {
+            long draw = window(rows.fields, rows.count, column);
+            if (draw == 0L && search) {
+                draw = firstWindow(rows.fields, rows.count);
+            }
+            if (draw != 0L) {
+                chunk.add(draw);
+            } else if (!rows.blank) {
+                chunk.skipped++;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * The column where a draw starts in the most of the file's first {@link #SAMPLE_ROWS} rows, or 0 if none
+     * has one. Where columns tie, e.g. a leading draw number below {@link LottoEngine#MAX_NUMBER} or a trailing
+     * bonus ball either side of the six numbers, one counting up or down by one from row to row over three
+     * or more rows is a draw number and is passed over; then the leftmost wins.
+     */
+    static int detectColumn(FileChannel channel, long fileSize) throws IOException {
+        int candidates = MAX_COLUMNS - LottoEngine.NUM_PICKS + 1;
+        int[] rowCounts = new int[candidates];
+        int[] previous = new int[candidates];
+        int[] step = new int[candidates]; // +1 or -1 while the column counts that way, else 0
+        if (fileSize == 0) {
+            return 0;
+        }
+        Rows rows = new Rows(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, SAMPLE_BYTES)));
+        for (int sampled = 0; sampled < SAMPLE_ROWS && rows.next(); sampled++) {
+            for (int c = 0; c + LottoEngine.NUM_PICKS <= rows.count; c++) {
+                if (window(rows.fields, rows.count, c) == 0L) {
+                    continue;
+                }
+                int value = rows.fields[c];
+                int delta = value - previous[c];
+                if (rowCounts[c] == 0) {
+                    step[c] = 0;
+                } else if (rowCounts[c] == 1) {
+                    step[c] = delta == 1 || delta == -1 ? delta : 0;
+                } else if (delta != step[c]) {
+                    step[c] = 0;
+                }
+                previous[c] = value;
+                rowCounts[c]++;
+            }
+        }
+        int best = 0;
+        for (int c = 1; c < candidates; c++) {
+            if (rowCounts[c] > rowCounts[best] || rowCounts[c] == rowCounts[best] && isDrawNumber(best, rowCounts, step)
+                    && !isDrawNumber(c, rowCounts, step)) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isDrawNumber(int c, int[] rowCounts, int[] step) {
+        return rowCounts[c] >= 3 && step[c] != 0;
+    }
+
+    /**
+     * The draw in fields {@code [start, start + NUM_PICKS)}, or 0 if they are not distinct in-range numbers.
+     */
+    static long window(int[] fields, int count, int start) {
+        if (start + LottoEngine.NUM_PICKS > count) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (int i = start; i < start + LottoEngine.NUM_PICKS; i++) {
+            long bit = 1L << fields[i];
+            if (fields[i] == 0 || (mask & bit) != 0) {
+                return 0L;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * The first run of {@code NUM_PICKS} consecutive distinct in-range fields, or 0 if there is none.
+     * A repeated number restarts the run just after its earlier occurrence.
+     */
+    static long firstWindow(int[] fields, int count) {
+        long run = 0L;
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int value = fields[i];
+            if (value == 0) {
+                run = 0L;
+                start = i + 1;
+                continue;
+            }
+            long bit = 1L << value;
+            if ((run & bit) != 0) {
+                while (fields[start] != value) {
+                    run &= ~(1L << fields[start]);
+                    start++;
+                }
+                start++;
+            } else {
+                run |= bit;
+            }
+            if (i - start + 1 == LottoEngine.NUM_PICKS) {
+                return run;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Splits mapped bytes into rows, keeping for each of a row's first {@link #MAX_COLUMNS} fields its value
+     * if it is a number in [1, {@link LottoEngine#MAX_NUMBER}], else 0. Nothing is allocated per row.
+     */
+    private static final class Rows {
+        final int[] fields = new int[MAX_COLUMNS];
+        int count;
+        boolean blank;
+        private final ByteBuffer bytes;
+        private final int end;
+        private int position;
+
+        Rows(ByteBuffer bytes) {
+            this.bytes = bytes;
+            this.end = bytes.limit();
+        }
+
+        /**
+         * Advance to the next row; the last one need not end with a newline.
+         */
+        boolean next() {
+            if (position >= end) {
+                return false;
+            }
+            count = 0;
+            blank = true;
+            int value = 0;
+            int digits = 0;
+            boolean numeric = true;
+            while (true) {
+                byte b = position < end ? bytes.get(position) : (byte) '\n';
+                position++;
+                if (b == '\n' || b == ',' || b == ';' || b == '|' || b == '\t') {
+                    if (count < fields.length) {
+                        boolean inRange = numeric && digits > 0 && value >= 1 && value <= LottoEngine.MAX_NUMBER;
+                        fields[count++] = inRange ? value : 0;
+                    }
+                    if (b == '\n') {
+                        return true;
+                    }
+                    value = 0;
+                    digits = 0;
+                    numeric = true;
+                } else if (b >= '0' && b <= '9') {
+                    blank = false;
+                    if (value <= LottoEngine.MAX_NUMBER) {
+                        value = value * 10 + (b - '0');
+                    }
+                    digits++;
+                } else if (b != ' ' && b != '"' && b != '\r') {
+                    blank = false;
+                    numeric = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws parsed from one range of the file.
+     */
+    static final class Chunk {
+        /** Grown by doubling, so a huge chunk costs heap in proportion to the draws it really holds. */
+        static final int INITIAL_CAPACITY = 4096;
+
+        long[] draws;
+        int size;
+        long skipped;
+
+        Chunk() {
+            draws = new long[INITIAL_CAPACITY];
+        }
+
+        void add(long mask) {
+            if (size == draws.length) {
+                draws = Arrays.copyOf(draws, (int) Math.min(Integer.MAX_VALUE - 8, draws.length * 2L));
+            }
+            draws[size++] = mask;
+        }
+    }
+
+    /**
+     * Number of draws loaded.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Non-blank rows that held no valid draw, e.g. a header line.
+     */
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    public long getDraw(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside [0, " + size + ")");
+        }
+        return draws[index];
+    }
+
+    public int[] getNumbers(int index) {
+        return LottoEngine.fromMask(getDraw(index));
+    }
+
+    /**
+     * Copy draws {@code [from, from + count)} into {@code buffer}, e.g. to feed a {@link DrawAnalytics.Shard}
+     * or a {@link DrawJournal.Writer}.
+     */
+    public void copy(int from, long[] buffer, int offset, int count) {
+        System.arraycopy(draws, from, buffer, offset, count);
+    }
+
+    /**
+     * Feed every draw, oldest first, through {@link LottoEngine#recordDraw(long)}, so the engine's tallies
+     * become those of its current picks against the real history.
+     *
+     * @return the number of draws replayed
+     */
+    public long replay(LottoEngine engine) {
+        for (int i = 0; i < size; i++) {
+            engine.recordDraw(draws[i]);
+        }
+        return size;
+    }
+
+    /**
+     * The tallies {@code picks} would have won over the whole history.
+     */
+    public SimulationResult backtest(int[] picks) {
+        LottoEngine engine = new LottoEngine();
+        engine.setPicks(picks);
+        replay(engine);
+        return SimulationResult.of(engine);
+    }
+
+    /**
+     * Score {@code ticketMask} against every draw.
+     *
+     * @param tierCounts per-match-count totals, indexed 0..{@link LottoEngine#NUM_PICKS}; incremented in place
+     */
+    public void score(long ticketMask, long[] tierCounts) {
+        MaskScorer.best().score(ticketMask, draws, 0, size, tierCounts);
+    }
+
+    /**
+     * Score every ticket of {@code book} against every draw.
+     *
+     * @param tierCounts per-match-count totals, indexed 0..{@link LottoEngine#NUM_PICKS}; incremented in place
+     */
+    public void score(TicketBook book, long[] tierCounts) {
+        for (int i = 0; i < size; i++) {
+            book.score(draws[i], tierCounts);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.bohannon.lotto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary log of every drawing, and a reader that replays it.
+ * <p>
+ * File layout (little-endian): a 16-byte header of magic {@code "LDRJ"}, format version, record size
+ * and a reserved int, then one record per drawing in draw order. A record is either the 8-byte winners
+ * bitmask ({@link Encoding#MASK}) or the 4-byte {@link Combinadic} rank ({@link Encoding#RANK}).
+ * The record count is implied by the file length, so a journal can be appended to across runs and
+ * a torn final record after a crash is simply ignored.
+ * <p>
+ * Replaying a journal into a {@link LottoEngine} rebuilds its tallies, or scores any other ticket
+ * against the same draws, without generating random numbers again.
+ */
+public class DrawJournal implements Closeable {
+
+    static final int MAGIC = 0x4A52444C; // "LDRJ" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * How each drawing is stored.
+     */
+    public enum Encoding {
+        MASK(8), RANK(4);
+
+        final int recordBytes;
+
+        Encoding(int recordBytes) {
+            this.recordBytes = recordBytes;
+        }
+
+        static Encoding forRecordBytes(int recordBytes) {
+            for (Encoding encoding : values()) {
+                if (encoding.recordBytes == recordBytes) {
+                    return encoding;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Encoding encoding;
+    private final long size;
+    /** Staging for {@link #read}, allocated once per journal rather than once per call. */
+    private final ByteBuffer bytes;
+
+    private DrawJournal(FileChannel channel, Encoding encoding, long size) {
+        this.channel = channel;
+        this.encoding = encoding;
+        this.size = size;
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Open an existing journal for reading.
+     *
+     * @throws IOException if the file cannot be read or is not a drawing journal
+     */
+    public static DrawJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            Encoding encoding = readHeader(channel, path);
+            return new DrawJournal(channel, encoding, (channel.size() - HEADER_BYTES) / encoding.recordBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start a new journal, replacing any existing file.
+     */
+    public static Writer create(Path path, Encoding encoding) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(encoding.recordBytes).putInt(0).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            return new Writer(channel, encoding);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Continue an existing journal, keeping its encoding. A torn final record is overwritten.
+     */
+    public static Writer append(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Encoding encoding = readHeader(channel, path);
+            long records = (channel.size() - HEADER_BYTES) / encoding.recordBytes;
+            channel.position(HEADER_BYTES + records * encoding.recordBytes);
+            return new Writer(channel, encoding);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Continue an existing journal after its first {@code records} drawings, discarding any later ones,
+     * e.g. drawings logged after the {@link Checkpoint} a run is resumed from.
+     *
+     * @throws IOException if the journal holds fewer than {@code records} drawings
+     */
+    public static Writer append(Path path, long records) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Encoding encoding = readHeader(channel, path);
+            long end = HEADER_BYTES + records * encoding.recordBytes;
+            if (channel.size() < end) {
+                throw new IOException("Journal has fewer than " + records + " drawings: " + path);
+            }
+            channel.truncate(end);
+            channel.position(end);
+            return new Writer(channel, encoding);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Encoding readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated journal header: " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a drawing journal: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version " + version + ": " + path);
+        }
+        Encoding encoding = Encoding.forRecordBytes(header.getInt());
+        if (encoding == null) {
+            throw new IOException("Unknown journal record size: " + path);
+        }
+        return encoding;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Number of complete drawings in the journal.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Read up to {@code buffer.length} draw masks starting at drawing {@code first}. Reads go through one
+     * buffer owned by the journal, so a journal must not be read from several threads at once.
+     *
+     * @return the number of masks read, 0 at the end of the journal
+     */
+    public int read(long first, long[] buffer) throws IOException {
+        int count = (int) Math.min(buffer.length, Math.max(0, size - first));
+        int perChunk = BUFFER_BYTES / encoding.recordBytes;
+        for (int done = 0; done < count; ) {
+            int n = Math.min(count - done, perChunk);
+            bytes.clear().limit(n * encoding.recordBytes);
+            long position = HEADER_BYTES + (first + done) * encoding.recordBytes;
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, position + bytes.position()) < 0) {
+                    throw new IOException("Journal ended early");
+                }
+            }
+            bytes.flip();
+            if (encoding == Encoding.MASK) {
+                bytes.asLongBuffer().get(buffer, done, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    buffer[done + i] = Combinadic.DEFAULT.unrankMask(bytes.getInt());
+                }
+            }
+            done += n;
+        }
+        return count;
+    }
+
+    /**
+     * Feed every drawing in the journal through {@link LottoEngine#recordDraw(long)}, so the engine's
+     * tallies become those of its current picks against the recorded draws.
+     *
+     * @return the number of drawings replayed
+     */
+    public long replay(LottoEngine engine) throws IOException {
+        long[] chunk = new long[BUFFER_BYTES / Long.BYTES];
+        long done = 0;
+        int n;
+        while ((n = read(done, chunk)) > 0) {
+            for (int i = 0; i < n; i++) {
+                engine.recordDraw(chunk[i]);
+            }
+            done += n;
+        }
+        return done;
+    }
+
+    /**
+     * Score {@code ticketMask} against every recorded drawing.
+     *
+     * @param tierCounts per-match-count totals, indexed 0..{@link LottoEngine#NUM_PICKS}; incremented in place
+     */
+    public void score(long ticketMask, long[] tierCounts) throws IOException {
+        long[] chunk = new long[BUFFER_BYTES / Long.BYTES];
+        long done = 0;
+        int n;
+        while ((n = read(done, chunk)) > 0) {
+            MaskScorer.best().score(ticketMask, chunk, 0, n, tierCounts);
+            done += n;
+        }
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Buffers drawings in a 1 MB direct buffer and writes them to the channel in large batches.
+     */
+    public static class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final Encoding encoding;
+        private final ByteBuffer buffer;
+        private long count;
+
+        Writer(FileChannel channel, Encoding encoding) {
+            this.channel = channel;
+            this.encoding = encoding;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        public Encoding getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Number of drawings appended through this writer.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Append one drawing given as its winners bitmask.
+         */
+        public void append(long drawMask) throws IOException {
+            if (buffer.remaining() < encoding.recordBytes) {
+                flush();
+            }
+            if (encoding == Encoding.MASK) {
+                buffer.putLong(drawMask);
+            } else {
+                buffer.putInt(Combinadic.DEFAULT.rank(drawMask));
+            }
+            count++;
+        }
+
+        /**
+         * Append the drawings {@code draws[from, to)}, e.g. a batch filled by
+         * {@link LottoEngine#runDrawings(int, long[], int)}.
+         */
+        public void append(long[] draws, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                append(draws[i]);
+            }
+        }
+
+        /**
+         * Write everything buffered so far to the file.
+         */
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * {@link #flush()}, then force the file's contents to the storage device, so the drawings written so far
+         * survive a crash of the machine and not just of the process.
+         */
+        public void sync() throws IOException {
+            flush();
+            channel.force(false);
+        }
+
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.bohannon.lotto;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Skip-ahead alternative to {@link LottoEngine} for long "years until jackpot" studies.
+ * <p>
+ * For a fixed ticket every drawing independently lands in tier 3, 4, 5 or 6 with a known
+ * probability, and in the ignored 0-2 tiers otherwise. Instead of simulating every drawing this
+ * engine samples the number of ignored drawings before the next 3+ match from the geometric
+ * distribution, advances the drawing count by that much, and then picks the tier of the match.
+ * Only those draws are materialized, 279,335 of every 15,890,700 or about one in 57 for 6-of-50 (the sum of
+ * {@link #probability(int)} over 3 to 6 matches), and the tallies have exactly
+ * the same distribution as running {@link LottoEngine#runOneDrawing()} that many times.
+ */
+public class FastForwardEngine {
+
+    private static final int NUM_PICKS = LottoEngine.NUM_PICKS;
+    private static final int MAX_NUMBER = LottoEngine.MAX_NUMBER;
+
+    // Probability that a drawing scores 3 or more, and the cumulative tier split given that it does
+    private static final double P_INTERESTING;
+    private static final double LOG_P_DULL;
+    private static final double[] TIER_THRESHOLDS = new double[NUM_PICKS + 1];
+
+    static {
+        double interesting = 0.0;
+        for (int k = 3; k <= NUM_PICKS; k++) {
+            interesting += probability(k);
+        }
+        P_INTERESTING = interesting;
+        LOG_P_DULL = Math.log1p(-interesting);
+        double cumulative = 0.0;
+        for (int k = 3; k <= NUM_PICKS; k++) {
+            cumulative += probability(k) / interesting;
+            TIER_THRESHOLDS[k] = cumulative;
+        }
+        TIER_THRESHOLDS[NUM_PICKS] = 1.0;
+    }
+
+    private final RandomGenerator random;
+
+    private int[] picks = new int[NUM_PICKS];
+    private long picksMask;
+    private int[] winners = new int[NUM_PICKS];
+    // Scratch copy of the picks shuffled by materializeWinners, kept so the fast path allocates nothing
+    private final int[] pool = new int[NUM_PICKS];
+    private long matchesOf3;
+    private long matchesOf4;
+    private long matchesOf5;
+    private long matchesOf6;
+    private long drawingCount;
+    private boolean jackpotHit;
+
+    // Dull drawings still owed before the next interesting one; -1 when none has been sampled yet
+    private long pendingGap = -1;
+
+    public FastForwardEngine() {
+        this(new Random());
+    }
+
+    public FastForwardEngine(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Exact probability that one drawing matches a ticket in exactly {@code matches} numbers.
+     */
+    public static double probability(int matches) {
+        return Combinatorics.matchProbability(MAX_NUMBER, NUM_PICKS, NUM_PICKS, matches);
+    }
+
+    /**
+     * Probability that one drawing produces a 3, 4, 5 or 6 match.
+     */
+    public static double interestingProbability() {
+        return P_INTERESTING;
+    }
+
+    public void setPicks(int[] userPicks) {
+        this.picks = new int[NUM_PICKS];
+        System.arraycopy(userPicks, 0, this.picks, 0, NUM_PICKS);
+        this.picksMask = LottoEngine.toMask(picks);
+        if (Long.bitCount(picksMask) != NUM_PICKS) {
+            throw new IllegalArgumentException("Picks must be " + NUM_PICKS + " unique numbers in [1, " + MAX_NUMBER + "]");
+        }
+    }
+
+    /**
+     * Advance the simulation by up to {@code n} drawings, stopping early after a jackpot.
+     *
+     * @return the number of drawings actually advanced
+     */
+    public long runDrawings(long n) {
+        long remaining = n;
+        while (remaining > 0) {
+            if (pendingGap < 0) {
+                pendingGap = sampleGap();
+            }
+            if (pendingGap >= remaining) {
+                // The next interesting drawing lies beyond this call; keep the rest of the gap for later
+                pendingGap -= remaining;
+                drawingCount += remaining;
+                return n;
+            }
+            remaining -= pendingGap + 1;
+            drawingCount += pendingGap + 1;
+            pendingGap = -1;
+            if (recordInteresting()) {
+                return n - remaining;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Advance until the next jackpot.
+     *
+     * @return the number of drawings it took
+     */
+    public long runUntilJackpot() {
+        long start = drawingCount;
+        while (runDrawings(Long.MAX_VALUE) == Long.MAX_VALUE) {
+            // only reached after about 9e18 drawings without a jackpot
+        }
+        return drawingCount - start;
+    }
+
+    /**
+     * Number of dull drawings before the next interesting one: Geometric(P_INTERESTING) by inversion.
+     */
+    private long sampleGap() {
+        double u = 1.0 - random.nextDouble(); // (0, 1]
+        double gap = Math.floor(Math.log(u) / LOG_P_DULL);
+        return gap >= Long.MAX_VALUE ? Long.MAX_VALUE - 1 : (long) gap;
+    }
+
+    /**
+     * Pick the tier of an interesting drawing, materialize a matching set of winners and record it.
+     *
+     * @return true if it was a jackpot
+     */
+    private boolean recordInteresting() {
+        double u = random.nextDouble();
+        int matches = 3;
+        while (u >= TIER_THRESHOLDS[matches] && matches < NUM_PICKS) {
+            matches++;
+        }
+        materializeWinners(matches);
+        switch (matches) {
+            case 3:
+                matchesOf3++;
+                return false;
+            case 4:
+                matchesOf4++;
+                return false;
+            case 5:
+                matchesOf5++;
+                return false;
+            default:
+                matchesOf6++;
+                jackpotHit = true;
+                return true;
+        }
+    }
+
+    /**
+     * Fill {@link #winners} with a uniformly random draw that shares exactly {@code matches} numbers with the picks.
+     */
+    private void materializeWinners(int matches) {
+        System.arraycopy(picks, 0, pool, 0, NUM_PICKS);
+        for (int i = 0; i < matches; i++) {
+            int j = i + random.nextInt(NUM_PICKS - i);
+            int tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+            winners[i] = pool[i];
+        }
+        long used = picksMask;
+        for (int i = matches; i < NUM_PICKS; i++) {
+            int num;
+            do {
+                num = random.nextInt(MAX_NUMBER) + 1;
+            } while ((used & (1L << num)) != 0L);
+            used |= 1L << num;
+            winners[i] = num;
+        }
+    }
+
+    public void reset() {
+        picks = new int[NUM_PICKS];
+        picksMask = 0L;
+        winners = new int[NUM_PICKS];
+        matchesOf3 = 0;
+        matchesOf4 = 0;
+        matchesOf5 = 0;
+        matchesOf6 = 0;
+        drawingCount = 0;
+        jackpotHit = false;
+        pendingGap = -1;
+    }
+
+    public SimulationResult getResult() {
+        return new SimulationResult(drawingCount, matchesOf3, matchesOf4, matchesOf5, matchesOf6);
+    }
+
+    // --- Getters ---
+
+    public int[] getPicks() {
+        return picks;
+    }
+
+    /**
+     * The winners of the most recent 3+ match drawing; dull drawings are never materialized.
+     */
+    public int[] getWinners() {
+        return winners;
+    }
+
+    public long getMatchesOf3() {
+        return matchesOf3;
+    }
+
+    public long getMatchesOf4() {
+        return matchesOf4;
+    }
+
+    public long getMatchesOf5() {
+        return matchesOf5;
+    }
+
+    public long getMatchesOf6() {
+        return matchesOf6;
+    }
+
+    public long getDrawingCount() {
+        return drawingCount;
+    }
+
+    public double getYears() {
+        return (double) drawingCount / LottoEngine.DRAWINGS_PER_YEAR;
+    }
+
+    public boolean isJackpotHit() {
+        return jackpotHit;
+    }
+}
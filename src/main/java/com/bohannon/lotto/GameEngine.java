@@ -0,0 +1,180 @@
+package com.bohannon.lotto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulates any {@link GameSpec}, tallying drawings per prize tier.
+ * The default 6-of-50 game runs on the same single-{@code long} mask kernel as {@link LottoEngine},
+ * and for the same seed produces the same draws.
+ */
+public class GameEngine {
+
+    private final GameSpec spec;
+    private final GameKernel kernel;
+    private final RandomGenerator random;
+    // Copied out of the spec so the per-drawing path touches only this object's fields
+    private final int bonusMax;
+    private final int jackpotTier;
+
+    private int[] picks;
+    private int bonusPick;
+    private int lastBonus;
+    private final long[] tierCounts;
+    private long drawingCount;
+    private boolean jackpotHit;
+
+    public GameEngine(GameSpec spec) {
+        this(spec, new Random());
+    }
+
+    public GameEngine(GameSpec spec, RandomGenerator random) {
+        this.spec = spec;
+        this.kernel = GameKernel.forSpec(spec);
+        this.random = random;
+        this.bonusMax = spec.getBonusMax();
+        this.jackpotTier = spec.getJackpotTier();
+        this.picks = new int[spec.getPicks()];
+        this.tierCounts = new long[spec.getTiers().size()];
+    }
+
+    /**
+     * Set the ticket for a game without a bonus ball.
+     */
+    public void setPicks(int[] userPicks) {
+        setPicks(userPicks, 0);
+    }
+
+    /**
+     * Set the ticket's main numbers and bonus ball.
+     *
+     * @param bonus the bonus ball pick in [1, bonusMax], or 0 for a game without one
+     * @throws IllegalArgumentException if the numbers do not form a valid ticket for this game
+     */
+    public void setPicks(int[] userPicks, int bonus) {
+        if (userPicks.length != spec.getPicks()) {
+            throw new IllegalArgumentException("Expected " + spec.getPicks() + " picks for " + spec);
+        }
+        boolean[] seen = new boolean[spec.getMaxNumber() + 1];
+        for (int num : userPicks) {
+            if (num < 1 || num > spec.getMaxNumber() || seen[num]) {
+                throw new IllegalArgumentException("Invalid or duplicate pick " + num + " for " + spec);
+            }
+            seen[num] = true;
+        }
+        if (spec.hasBonus() ? bonus < 1 || bonus > spec.getBonusMax() : bonus != 0) {
+            throw new IllegalArgumentException("Invalid bonus pick " + bonus + " for " + spec);
+        }
+        this.picks = userPicks.clone();
+        this.bonusPick = bonus;
+        kernel.setPicks(picks);
+    }
+
+    /**
+     * Generate a random valid ticket for this game and make it the current picks.
+     */
+    public void generateQuickPick() {
+        kernel.drawAndCount(random);
+        int bonus = spec.hasBonus() ? random.nextInt(spec.getBonusMax()) + 1 : 0;
+        setPicks(kernel.lastDraw.clone(), bonus);
+    }
+
+    /**
+     * Run one drawing and record its tier.
+     *
+     * @return the index of the tier won, or -1 if the drawing pays nothing
+     */
+    public int runOneDrawing() {
+        drawingCount++;
+        int matches = kernel.drawAndCount(random);
+        boolean bonusHit = false;
+        if (bonusMax > 0) {
+            lastBonus = random.nextInt(bonusMax) + 1;
+            bonusHit = lastBonus == bonusPick;
+        }
+        int tier = spec.tierFor(matches, bonusHit);
+        if (tier >= 0) {
+            tierCounts[tier]++;
+            if (tier == jackpotTier) {
+                jackpotHit = true;
+            }
+        }
+        return tier;
+    }
+
+    /**
+     * Run up to {@code n} drawings, stopping early after a jackpot.
+     *
+     * @return the number of drawings actually run
+     */
+    public int runDrawings(int n) {
+        for (int i = 0; i < n; i++) {
+            if (runOneDrawing() == jackpotTier && jackpotTier >= 0) {
+                return i + 1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Sum of fixed prizes won so far.
+     */
+    public long getTotalPrize() {
+        List<PrizeTier> tiers = spec.getTiers();
+        long total = 0;
+        for (int i = 0; i < tierCounts.length; i++) {
+            total += tierCounts[i] * tiers.get(i).getPrize();
+        }
+        return total;
+    }
+
+    public void reset() {
+        picks = new int[spec.getPicks()];
+        bonusPick = 0;
+        lastBonus = 0;
+        kernel.setPicks(picks);
+        Arrays.fill(tierCounts, 0L);
+        drawingCount = 0;
+        jackpotHit = false;
+    }
+
+    // --- Getters ---
+
+    public GameSpec getSpec() {
+        return spec;
+    }
+
+    public int[] getPicks() {
+        return picks;
+    }
+
+    public int getBonusPick() {
+        return bonusPick;
+    }
+
+    public int[] getWinners() {
+        return kernel.lastDraw;
+    }
+
+    public int getWinningBonus() {
+        return lastBonus;
+    }
+
+    public long getTierCount(int tier) {
+        return tierCounts[tier];
+    }
+
+    public long getDrawingCount() {
+        return drawingCount;
+    }
+
+    public double getYears() {
+        return (double) drawingCount / spec.getDrawingsPerYear();
+    }
+
+    public boolean isJackpotHit() {
+        return jackpotHit;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bohannon.lotto;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draw-and-score inner loop for one {@link GameSpec}. {@link #forSpec(GameSpec)} picks a single-{@code long}
+ * bitmask kernel when the pool fits in 63 numbers, and a multi-word bitset kernel otherwise.
+ * Both draw by rejection with {@code random.nextInt(maxNumber) + 1}, the same sequence {@link LottoEngine} uses.
+ */
+abstract class GameKernel {
+
+    final int picks;
+    final int maxNumber;
+    final int[] lastDraw;
+
+    GameKernel(GameSpec spec) {
+        this.picks = spec.getPicks();
+        this.maxNumber = spec.getMaxNumber();
+        this.lastDraw = new int[picks];
+    }
+
+    static GameKernel forSpec(GameSpec spec) {
+        return spec.fitsInMask() ? new MaskKernel(spec) : new BitSetKernel(spec);
+    }
+
+    /**
+     * Remember the ticket to score against. Numbers are assumed to be validated by the caller.
+     */
+    abstract void setPicks(int[] numbers);
+
+    /**
+     * Draw the main numbers into {@link #lastDraw} and return how many of them match the picks.
+     */
+    abstract int drawAndCount(RandomGenerator random);
+
+    /**
+     * Pools of up to 63 numbers: the ticket and each draw are one {@code long}, scored with a popcount.
+     */
+    static final class MaskKernel extends GameKernel {
+
+        private long picksMask;
+
+        MaskKernel(GameSpec spec) {
+            super(spec);
+        }
+
+        void setPicks(int[] numbers) {
+            long mask = 0L;
+            for (int num : numbers) {
+                mask |= 1L << num;
+            }
+            picksMask = mask;
+        }
+
+        int drawAndCount(RandomGenerator random) {
+            long mask = 0L;
+            for (int i = 0; i < picks; i++) {
+                int num;
+                long bit;
+                do {
+                    num = random.nextInt(maxNumber) + 1;
+                    bit = 1L << num;
+                } while ((mask & bit) != 0L);
+                mask |= bit;
+                lastDraw[i] = num;
+            }
+            return Long.bitCount(mask & picksMask);
+        }
+    }
+
+    /**
+     * Pools of any size: the ticket is a multi-word bitset, and the draw is tracked in a scratch bitset
+     * that is cleared again after each drawing, so nothing is allocated per drawing.
+     */
+    static final class BitSetKernel extends GameKernel {
+
+        private final long[] picksBits;
+        private final long[] drawBits;
+
+        BitSetKernel(GameSpec spec) {
+            super(spec);
+            int words = (spec.getMaxNumber() >>> 6) + 1;
+            this.picksBits = new long[words];
+            this.drawBits = new long[words];
+        }
+
+        void setPicks(int[] numbers) {
+            Arrays.fill(picksBits, 0L);
+            for (int num : numbers) {
+                picksBits[num >>> 6] |= 1L << num;
+            }
+        }
+
+        int drawAndCount(RandomGenerator random) {
+            int matches = 0;
+            for (int i = 0; i < picks; i++) {
+                int num;
+                long bit;
+                do {
+                    num = random.nextInt(maxNumber) + 1;
+                    bit = 1L << num;
+                } while ((drawBits[num >>> 6] & bit) != 0L);
+                drawBits[num >>> 6] |= bit;
+                lastDraw[i] = num;
+                matches += (int) ((picksBits[num >>> 6] >>> num) & 1L);
+            }
+            for (int i = 0; i < picks; i++) {
+                drawBits[lastDraw[i] >>> 6] = 0L;
+            }
+            return matches;
+        }
+    }
+}
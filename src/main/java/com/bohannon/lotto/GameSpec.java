@@ -0,0 +1,154 @@
+package com.bohannon.lotto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a lottery game matrix: pick {@code picks} distinct numbers from [1, {@code maxNumber}],
+ * optionally plus one bonus ball from its own pool [1, {@code bonusMax}], with the prize tiers paid.
+ * A drawing lands in at most one tier; a tier that requires the bonus ball takes precedence over
+ * the plain tier with the same number of main matches.
+ */
+public final class GameSpec {
+
+    /** The original game modeled by {@link LottoEngine}. */
+    public static final GameSpec DEFAULT = new GameSpec("6 of 50", LottoEngine.NUM_PICKS, LottoEngine.MAX_NUMBER, 0,
+            LottoEngine.DRAWINGS_PER_YEAR, Arrays.asList(
+                    new PrizeTier("6 of 6", 6, false, 0),
+                    new PrizeTier("5 of 6", 5, false, 0),
+                    new PrizeTier("4 of 6", 4, false, 0),
+                    new PrizeTier("3 of 6", 3, false, 0)));
+
+    public static final GameSpec LOTTO_6_OF_49 = new GameSpec("6 of 49", 6, 49, 0, 104, Arrays.asList(
+            new PrizeTier("6 of 6", 6, false, 0),
+            new PrizeTier("5 of 6", 5, false, 0),
+            new PrizeTier("4 of 6", 4, false, 0),
+            new PrizeTier("3 of 6", 3, false, 10),
+            new PrizeTier("2 of 6", 2, false, 3)));
+
+    public static final GameSpec LOTTO_7_OF_35 = new GameSpec("7 of 35", 7, 35, 0, 52, Arrays.asList(
+            new PrizeTier("7 of 7", 7, false, 0),
+            new PrizeTier("6 of 7", 6, false, 0),
+            new PrizeTier("5 of 7", 5, false, 0),
+            new PrizeTier("4 of 7", 4, false, 0),
+            new PrizeTier("3 of 7", 3, false, 0)));
+
+    /** 5 of 69 plus a bonus ball from 26, with the fixed prizes of that game. The jackpot is pari-mutuel. */
+    public static final GameSpec POWERBALL = new GameSpec("5 of 69 + 1 of 26", 5, 69, 26, 156, Arrays.asList(
+            new PrizeTier("5 + bonus", 5, true, 0),
+            new PrizeTier("5", 5, false, 1000000),
+            new PrizeTier("4 + bonus", 4, true, 50000),
+            new PrizeTier("4", 4, false, 100),
+            new PrizeTier("3 + bonus", 3, true, 100),
+            new PrizeTier("3", 3, false, 7),
+            new PrizeTier("2 + bonus", 2, true, 7),
+            new PrizeTier("1 + bonus", 1, true, 4),
+            new PrizeTier("0 + bonus", 0, true, 4)));
+
+    private final String name;
+    private final int picks;
+    private final int maxNumber;
+    private final int bonusMax;
+    private final int drawingsPerYear;
+    private final List<PrizeTier> tiers;
+    // tierIndex[matches * 2 + (bonus hit ? 1 : 0)] -> index into tiers, or -1 for no prize
+    private final int[] tierIndex;
+    private final int jackpotTier;
+
+    /**
+     * @param bonusMax size of the separate bonus ball pool, or 0 for a game without a bonus ball
+     * @param tiers    prize tiers, conventionally listed from the jackpot down
+     * @throws IllegalArgumentException if the matrix or a tier is inconsistent
+     */
+    public GameSpec(String name, int picks, int maxNumber, int bonusMax, int drawingsPerYear, List<PrizeTier> tiers) {
+        if (picks < 1 || picks > maxNumber) {
+            throw new IllegalArgumentException("Cannot pick " + picks + " of " + maxNumber);
+        }
+        if (bonusMax < 0 || drawingsPerYear < 1) {
+            throw new IllegalArgumentException("Invalid bonus pool or drawings per year");
+        }
+        this.name = name;
+        this.picks = picks;
+        this.maxNumber = maxNumber;
+        this.bonusMax = bonusMax;
+        this.drawingsPerYear = drawingsPerYear;
+        this.tiers = Collections.unmodifiableList(new ArrayList<>(tiers));
+
+        this.tierIndex = new int[(picks + 1) * 2];
+        Arrays.fill(tierIndex, -1);
+        for (int i = 0; i < this.tiers.size(); i++) {
+            PrizeTier tier = this.tiers.get(i);
+            if (tier.getMatches() > picks || (tier.isBonus() && bonusMax == 0)) {
+                throw new IllegalArgumentException("Tier " + tier + " does not fit " + name);
+            }
+            int slot = tier.getMatches() * 2 + (tier.isBonus() ? 1 : 0);
+            if (tierIndex[slot] >= 0) {
+                throw new IllegalArgumentException("Duplicate tier " + tier + " in " + name);
+            }
+            tierIndex[slot] = i;
+        }
+        // Without a bonus-specific tier, a bonus hit pays the plain tier for the same matches
+        for (int m = 0; m <= picks; m++) {
+            if (tierIndex[m * 2 + 1] < 0) {
+                tierIndex[m * 2 + 1] = tierIndex[m * 2];
+            }
+        }
+        this.jackpotTier = bonusMax > 0 ? tierIndex[picks * 2 + 1] : tierIndex[picks * 2];
+    }
+
+    /**
+     * Index into {@link #getTiers()} for a drawing with {@code matches} main matches, or -1 if it pays nothing.
+     */
+    public int tierFor(int matches, boolean bonusHit) {
+        return tierIndex[matches * 2 + (bonusHit ? 1 : 0)];
+    }
+
+    /**
+     * Whether tickets and draws of this game fit in one {@code long} bitmask (numbers use bits 1..63).
+     */
+    public boolean fitsInMask() {
+        return maxNumber < Long.SIZE;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPicks() {
+        return picks;
+    }
+
+    public int getMaxNumber() {
+        return maxNumber;
+    }
+
+    public boolean hasBonus() {
+        return bonusMax > 0;
+    }
+
+    public int getBonusMax() {
+        return bonusMax;
+    }
+
+    public int getDrawingsPerYear() {
+        return drawingsPerYear;
+    }
+
+    public List<PrizeTier> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Index of the tier that requires every number (and the bonus ball, if any), or -1 if the game has none.
+     */
+    public int getJackpotTier() {
+        return jackpotTier;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
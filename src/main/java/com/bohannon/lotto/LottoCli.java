@@ -0,0 +1,563 @@
+package com.bohannon.lotto;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless command-line launcher for the lottery simulator.
+ * Drives {@link LottoEngine} in a tight batched loop with no display and no sleeps,
+ * then prints the match tallies and the throughput achieved.
+ * With {@code --checkpoint} the run saves its state periodically and, when started again with
+ * the same file, resumes from the last checkpoint instead of starting over; a JVM shutdown, e.g. on SIGTERM,
+ * saves a final checkpoint before exiting. With {@code --metrics}
+ * a {@link SimulationMetrics} MBean is registered and a metrics line printed every interval. With
+ * {@code --analytics} every draw goes through {@link DrawAnalytics} and the most frequent numbers
+ * and pairs and the most overdue numbers are added to the report. {@code --backtest} replaces the
+ * simulation with a real draw history loaded by {@link DrawHistory}, parsed on {@code --threads} threads.
+ * {@code --coordinator} cuts a fixed-length run into {@code --partitions} pieces for
+ * {@link DistributedWorker} nodes started with {@code --worker}, each serving {@code --threads} connections.
+ *
+ * <pre>
+ * java -cp bohannon-lotto.jar com.bohannon.lotto.LottoCli --drawings 100000000 --picks 7,14,21,28,35,42
+ * java -jar bohannon-lotto.jar --years 1000 --seed 42
+ * java -jar bohannon-lotto.jar --until-jackpot
+ * java -jar bohannon-lotto.jar --until-tier 5:3 --years 100000
+ * java -jar bohannon-lotto.jar --drawings 10000000000 --threads 32 --seed 7
+ * java -jar bohannon-lotto.jar --until-jackpot --fast-forward
+ * java -jar bohannon-lotto.jar --drawings 1000000000 --threads 8 --rng Xoroshiro128PlusPlus --seed 7
+ * java -jar bohannon-lotto.jar --years 10000 --seed 3 --journal draws.ldrj
+ * java -jar bohannon-lotto.jar --until-jackpot --checkpoint run.lckp --checkpoint-every 300
+ * java -jar bohannon-lotto.jar --drawings 10000000000 --threads 8 --metrics 10
+ * java -jar bohannon-lotto.jar --years 100000 --analytics
+ * java -jar bohannon-lotto.jar --backtest history.csv --picks 7,14,21,28,35,42 --threads 4
+ * java -jar bohannon-lotto.jar --drawings 100000000000 --seed 7 --coordinator 7070 --partitions 256
+ * java -jar bohannon-lotto.jar --worker coordinator-host:7070 --threads 8
+ * </pre>
+ */
+public class LottoCli {
+
+    private long drawings = -1;
+    private boolean untilJackpot;
+    private StopCondition tierTarget;
+    private int[] picks;
+    private Long seed;
+    private int threads;
+    private boolean fastForward;
+    private String rng = RandomStreams.LEGACY;
+    private Path journal;
+    private Path checkpoint;
+    private long checkpointSeconds = 60;
+    private long metricsSeconds;
+    private boolean analytics;
+    private Path backtest;
+    private int coordinatorPort = -1;
+    private int partitions = 64;
+    private String workerHost;
+    private int workerPort;
+    private volatile boolean stopRequested;
+
+    /** Longest a shutdown waits for the run to save its final checkpoint. */
+    static final long SHUTDOWN_GRACE_SECONDS = 30;
+
+    /**
+     * Parse command-line arguments. With no stop condition given the run goes until a jackpot.
+     *
+     * @throws IllegalArgumentException if an argument is unknown or malformed
+     */
+    static LottoCli parse(String[] args) {
+        LottoCli cli = new LottoCli();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--drawings":
+                    cli.drawings = Long.parseLong(value(args, ++i, arg));
+                    break;
+                case "--years": {
+                    String years = value(args, ++i, arg);
+                    try {
+                        cli.drawings = Math.multiplyExact(Long.parseLong(years), (long) LottoEngine.DRAWINGS_PER_YEAR);
+                    } catch (ArithmeticException e) {
+                        throw new IllegalArgumentException("--years " + years + " is more drawings than a long can count");
+                    }
+                    break;
+                }
+                case "--until-jackpot":
+                    cli.untilJackpot = true;
+                    break;
+                case "--until-tier":
+                    cli.tierTarget = parseTierTarget(value(args, ++i, arg));
+                    break;
+                case "--picks":
+                    cli.picks = parsePicks(value(args, ++i, arg));
+                    break;
+                case "--seed":
+                    cli.seed = Long.parseLong(value(args, ++i, arg));
+                    break;
+                case "--threads":
+                    cli.threads = Integer.parseInt(value(args, ++i, arg));
+                    break;
+                case "--rng":
+                    cli.rng = value(args, ++i, arg);
+                    break;
+                case "--fast-forward":
+                    cli.fastForward = true;
+                    break;
+                case "--journal":
+                    cli.journal = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--checkpoint":
+                    cli.checkpoint = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--metrics":
+                    cli.metricsSeconds = Long.parseLong(value(args, ++i, arg));
+                    if (cli.metricsSeconds <= 0) {
+                        throw new IllegalArgumentException("--metrics interval must be positive");
+                    }
+                    break;
+                case "--checkpoint-every":
+                    cli.checkpointSeconds = Long.parseLong(value(args, ++i, arg));
+                    break;
+                case "--backtest":
+                    cli.backtest = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--coordinator":
+                    cli.coordinatorPort = Integer.parseInt(value(args, ++i, arg));
+                    break;
+                case "--partitions":
+                    cli.partitions = Integer.parseInt(value(args, ++i, arg));
+                    if (cli.partitions < 1) {
+                        throw new IllegalArgumentException("--partitions must be at least 1");
+                    }
+                    break;
+                case "--worker": {
+                    String address = value(args, ++i, arg);
+                    int colon = address.lastIndexOf(':');
+                    if (colon <= 0) {
+                        throw new IllegalArgumentException("--worker needs HOST:PORT: " + address);
+                    }
+                    cli.workerHost = address.substring(0, colon);
+                    cli.workerPort = Integer.parseInt(address.substring(colon + 1));
+                    break;
+                }
+                case "--analytics":
+                    cli.analytics = true;
+                    break;
+                case "--headless":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (cli.workerHost != null && (cli.drawings >= 0 || cli.untilJackpot || cli.tierTarget != null || cli.seed != null || cli.picks != null
+                || cli.fastForward || cli.journal != null || cli.checkpoint != null || cli.metricsSeconds > 0
+                || cli.analytics || cli.backtest != null || cli.coordinatorPort >= 0)) {
+            throw new IllegalArgumentException("--worker takes its runs from the coordinator and only accepts --threads");
+        }
+        if (cli.coordinatorPort >= 0 && (cli.drawings < 0 || cli.untilJackpot || cli.threads > 0 || cli.tierTarget != null || cli.fastForward
+                || cli.journal != null || cli.checkpoint != null || cli.metricsSeconds > 0 || cli.analytics
+                || cli.backtest != null)) {
+            throw new IllegalArgumentException("--coordinator needs a fixed --drawings or --years count and no local run options");
+        }
+        if (cli.drawings < 0 && cli.tierTarget == null && cli.workerHost == null) {
+            cli.untilJackpot = true;
+        }
+        if (cli.backtest != null && (cli.drawings >= 0 || cli.tierTarget != null || cli.fastForward
+                || cli.journal != null || cli.checkpoint != null)) {
+            throw new IllegalArgumentException("--backtest replays the whole history and takes no run options");
+        }
+        if (cli.tierTarget != null && (cli.threads > 0 || cli.fastForward)) {
+            throw new IllegalArgumentException("--until-tier needs the plain single-threaded run");
+        }
+        if (cli.threads > 0 && cli.untilJackpot && cli.backtest == null) {
+            throw new IllegalArgumentException("--threads needs a fixed --drawings or --years count");
+        }
+        if (cli.threads > 0 && cli.fastForward) {
+            throw new IllegalArgumentException("--fast-forward runs on a single thread");
+        }
+        if (cli.journal != null && (cli.threads > 0 || cli.fastForward)) {
+            throw new IllegalArgumentException("--journal records every drawing and needs the plain single-threaded run");
+        }
+        if (cli.checkpoint != null && (cli.threads > 0 || cli.fastForward || !RandomStreams.LEGACY.equals(cli.rng))) {
+            throw new IllegalArgumentException("--checkpoint needs the single-threaded run with --rng " + RandomStreams.LEGACY);
+        }
+        if (cli.metricsSeconds > 0 && cli.fastForward) {
+            throw new IllegalArgumentException("--fast-forward skips drawings and has no batches to measure");
+        }
+        if (cli.analytics && cli.fastForward) {
+            throw new IllegalArgumentException("--fast-forward skips drawings and has none to analyse");
+        }
+        if (cli.checkpointSeconds <= 0) {
+            throw new IllegalArgumentException("--checkpoint-every must be positive");
+        }
+        RandomStreams.create(cli.rng, 0L); // fails fast on an unknown algorithm
+        return cli;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[i];
+    }
+
+    /**
+     * Parse {@code MATCHES:COUNT}, e.g. {@code 5:3} to stop after the third 5-of-6.
+     */
+    static StopCondition parseTierTarget(String text) {
+        int colon = text.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected MATCHES:COUNT but got " + text);
+        }
+        return StopCondition.tierCount(Integer.parseInt(text.substring(0, colon).trim()),
+                Long.parseLong(text.substring(colon + 1).trim()));
+    }
+
+    /**
+     * The combined stop condition of the single-threaded run.
+     */
+    StopCondition stopCondition() {
+        StopCondition until = drawings < 0 ? StopCondition.NEVER : StopCondition.drawings(drawings);
+        if (untilJackpot) {
+            until = until.or(StopCondition.jackpot());
+        }
+        if (tierTarget != null) {
+            until = until.or(tierTarget);
+        }
+        return until;
+    }
+
+    static int[] parsePicks(String text) {
+        String[] parts = text.split(",");
+        if (parts.length != LottoEngine.NUM_PICKS) {
+            throw new IllegalArgumentException("Expected " + LottoEngine.NUM_PICKS + " picks but got " + parts.length);
+        }
+        int[] picks = new int[LottoEngine.NUM_PICKS];
+        for (int i = 0; i < parts.length; i++) {
+            picks[i] = Integer.parseInt(parts[i].trim());
+            if (picks[i] < 1 || picks[i] > LottoEngine.MAX_NUMBER) {
+                throw new IllegalArgumentException("Pick out of range: " + picks[i]);
+            }
+        }
+        if (Long.bitCount(LottoEngine.toMask(picks)) != LottoEngine.NUM_PICKS) {
+            throw new IllegalArgumentException("Picks must be unique: " + text);
+        }
+        return picks;
+    }
+
+    /**
+     * Run the simulation to its stop condition, print the report and return the tallies.
+     */
+    SimulationResult run(PrintStream out) throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        SimulationMetrics metrics = metricsSeconds > 0
+                ? new SimulationMetrics(Math.max(1, threads)).start("cli", metricsSeconds * 1000, out) : null;
+        DrawAnalytics frequencies = analytics ? new DrawAnalytics() : null;
+        int[] runPicks;
+        SimulationResult result;
+        try {
+            if (backtest != null) {
+                DrawHistory history = DrawHistory.load(backtest, Math.max(1, threads));
+                out.println("History:   " + history.size() + " draws from " + backtest
+                        + (history.getSkippedLines() > 0 ? ", " + history.getSkippedLines() + " lines skipped" : ""));
+                runPicks = picks == null ? new LottoEngine(new Random(runSeed())).generateNumbers() : picks;
+                result = history.backtest(runPicks);
+                if (frequencies != null) {
+                    long[] draws = new long[LottoEngine.BATCH_SIZE];
+                    DrawAnalytics.Shard shard = frequencies.newShard();
+                    for (int from = 0; from < history.size(); from += draws.length) {
+                        int count = Math.min(draws.length, history.size() - from);
+                        history.copy(from, draws, 0, count);
+                        shard.accept(draws, 0, count);
+                    }
+                }
+            } else if (coordinatorPort >= 0) {
+                long masterSeed = runSeed();
+                runPicks = picks == null ? new LottoEngine(new Random(masterSeed)).generateNumbers() : picks;
+                DistributedCoordinator coordinator = new DistributedCoordinator(coordinatorPort);
+                try {
+                    out.println("Listening: port " + coordinator.getPort() + ", " + partitions + " partitions");
+                    result = coordinator.run(drawings, runPicks, masterSeed, partitions, rng);
+                    out.println("Workers:   " + coordinator.getWorkerCount() + " connected, "
+                            + coordinator.getReassignments() + " partitions reassigned");
+                } finally {
+                    coordinator.close();
+                }
+            } else if (threads > 0) {
+                long masterSeed = runSeed();
+                runPicks = picks == null ? new LottoEngine(new Random(masterSeed)).generateNumbers() : picks;
+                result = new ParallelSimulator(threads, rng).run(drawings, runPicks, masterSeed, null, metrics,
+                        frequencies);
+            } else if (fastForward) {
+                FastForwardEngine engine = runFastForward();
+                runPicks = engine.getPicks();
+                result = engine.getResult();
+            } else {
+                LottoEngine engine = runSingle(out, metrics, frequencies);
+                runPicks = engine.getPicks();
+                result = SimulationResult.of(engine);
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.close();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        printReport(out, runPicks, result, elapsed);
+        if (metrics != null) {
+            out.printf("Batches:   %d, mean %.0f us, p99 %.0f us, utilization %.0f%%%n", metrics.getBatchCount(),
+                    metrics.getBatchLatencyMeanMicros(), metrics.getBatchLatencyP99Micros(),
+                    metrics.getWorkerUtilization() * 100);
+        }
+        if (frequencies != null) {
+            printAnalytics(out, frequencies.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Serve a coordinator as a worker node until it is done, then return the partitions run.
+     */
+    long serve(PrintStream out) throws InterruptedException, IOException {
+        out.println("Worker:    " + workerHost + ":" + workerPort + ", " + Math.max(1, threads) + " connections");
+        long served = DistributedWorker.serve(workerHost, workerPort, Math.max(1, threads));
+        out.println("Served:    " + served + " partitions");
+        return served;
+    }
+
+    private long runSeed() {
+        return seed == null ? new Random().nextLong() : seed;
+    }
+
+    private LottoEngine runSingle(PrintStream out, SimulationMetrics metrics, DrawAnalytics frequencies)
+            throws IOException, InterruptedException {
+        boolean resuming = checkpoint != null && Files.exists(checkpoint);
+        LottoEngine engine;
+        if (resuming) {
+            engine = Checkpoint.load(checkpoint);
+            if (picks != null && !Arrays.equals(LottoEngine.fromMask(LottoEngine.toMask(picks)),
+                    LottoEngine.fromMask(LottoEngine.toMask(engine.getPicks())))) {
+                throw new IllegalArgumentException("--picks " + join(picks) + " differ from the picks "
+                        + join(engine.getPicks()) + " saved in " + checkpoint);
+            }
+            if (journal != null && !Files.exists(journal)) {
+                throw new IllegalArgumentException("--journal " + journal + " does not exist, so it cannot continue "
+                        + "from drawing " + engine.getDrawingCount() + " of " + checkpoint);
+            }
+            if (seed != null) {
+                out.println("Warning:   --seed is ignored; the random state comes from " + checkpoint);
+            }
+            out.println("Resumed:   " + checkpoint + " at drawing " + engine.getDrawingCount());
+        } else {
+            engine = new LottoEngine(RandomStreams.create(rng, runSeed()));
+            if (picks == null) {
+                engine.generateQuickPick();
+            } else {
+                engine.setPicks(picks);
+            }
+        }
+
+        final DrawJournal.Writer writer = journal == null ? null : resuming
+                ? DrawJournal.append(journal, engine.getDrawingCount())
+                : DrawJournal.create(journal, DrawJournal.Encoding.MASK);
+        final DrawAnalytics.Shard shard = frequencies == null ? null : frequencies.newShard();
+        final long[] draws = writer == null && shard == null ? null : new long[LottoEngine.BATCH_SIZE];
+        final long interval = checkpointSeconds * 1_000_000_000L;
+        StopCondition until = stopCondition();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread hook = null;
+        if (checkpoint != null) {
+            hook = new Thread(() -> {
+                requestStop();
+                try {
+                    stopped.await(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "lotto-checkpoint");
+            Runtime.getRuntime().addShutdownHook(hook);
+        }
+        // Per-batch side effects of the run; the batching, stop condition and cancellation are the engine's
+        LottoEngine.BatchListener listener = new LottoEngine.BatchListener() {
+            private SimulationResult published = SimulationResult.of(engine);
+            private long nextCheckpoint = System.nanoTime() + interval;
+
+            public void batchDone(LottoEngine engine, int drawings, long nanos) {
+                try {
+                    if (metrics != null) {
+                        SimulationResult current = SimulationResult.of(engine);
+                        metrics.recordBatch(published, current, nanos);
+                        published = current;
+                    }
+                    if (writer != null) {
+                        writer.append(draws, 0, drawings);
+                    }
+                    if (shard != null) {
+                        shard.accept(draws, 0, drawings);
+                    }
+                    if (checkpoint != null && System.nanoTime() - nextCheckpoint >= 0) {
+                        saveCheckpoint(engine, writer);
+                        nextCheckpoint = System.nanoTime() + interval;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (stopRequested) {
+                    // All of this batch's I/O is done, so the engine can end the run here
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try {
+            try {
+                if (draws == null) {
+                    engine.run(until, LottoEngine.BATCH_SIZE, listener);
+                } else {
+                    engine.run(until, draws, listener);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                if (checkpoint != null) {
+                    saveCheckpoint(engine, writer);
+                }
+                throw e;
+            }
+            if (checkpoint != null) {
+                saveCheckpoint(engine, writer);
+            }
+        } finally {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } finally {
+                stopped.countDown();
+                if (hook != null) {
+                    try {
+                        Runtime.getRuntime().removeShutdownHook(hook);
+                    } catch (IllegalStateException e) {
+                        // Already shutting down; the hook is waiting on this run
+                    }
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Ask a running single-threaded run to save a checkpoint, if it has one, and stop with an
+     * {@link InterruptedException} at the end of its batch. Unlike an interrupt this never lands in the middle
+     * of journal or checkpoint I/O, where it would close the channel. Called by the shutdown hook.
+     */
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * The journal is synced to disk first so that, even after a machine crash, it never holds fewer drawings
+     * than the checkpoint ({@link Checkpoint#save} forces its own file too).
+     */
+    private void saveCheckpoint(LottoEngine engine, DrawJournal.Writer writer) throws IOException {
+        if (writer != null) {
+            writer.sync();
+        }
+        Checkpoint.save(checkpoint, engine);
+    }
+
+    private FastForwardEngine runFastForward() {
+        RandomGenerator random = RandomStreams.create(rng, runSeed());
+        FastForwardEngine engine = new FastForwardEngine(random);
+        engine.setPicks(picks == null ? new LottoEngine(random).generateNumbers() : picks);
+
+        if (drawings < 0) {
+            engine.runUntilJackpot();
+        } else {
+            long remaining = drawings;
+            while (remaining > 0) {
+                remaining -= engine.runDrawings(remaining);
+                if (engine.isJackpotHit() && untilJackpot) {
+                    break;
+                }
+            }
+        }
+        return engine;
+    }
+
+    static void printReport(PrintStream out, int[] picks, SimulationResult result, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.println("Picks:     " + join(picks));
+        out.println("3 of 6:    " + result.getMatchesOf3());
+        out.println("4 of 6:    " + result.getMatchesOf4());
+        out.println("5 of 6:    " + result.getMatchesOf5());
+        out.println("6 of 6:    " + result.getMatchesOf6());
+        out.println("Drawings:  " + result.getDrawingCount());
+        out.printf("Years:     %.2f%n", result.getYears());
+        out.printf("Elapsed:   %.3f s%n", seconds);
+        out.printf("Rate:      %.0f drawings/s%n", seconds > 0 ? result.getDrawingCount() / seconds : 0.0);
+    }
+
+    static void printAnalytics(PrintStream out, AnalyticsSnapshot snapshot) {
+        StringBuilder frequent = new StringBuilder();
+        for (int n : snapshot.mostFrequent(5)) {
+            frequent.append(' ').append(n).append('(').append(snapshot.getNumberCount(n)).append(')');
+        }
+        StringBuilder overdue = new StringBuilder();
+        for (int n : snapshot.mostOverdue(5)) {
+            overdue.append(' ').append(n).append('(').append(snapshot.getCurrentGap(n)).append(')');
+        }
+        StringBuilder pairs = new StringBuilder();
+        for (int[] pair : snapshot.mostFrequentPairs(5)) {
+            pairs.append(' ').append(pair[0]).append('+').append(pair[1])
+                    .append('(').append(snapshot.getPairCount(pair[0], pair[1])).append(')');
+        }
+        out.println("Frequent: " + frequent);
+        out.printf("Overdue:  %s (expected gap %.2f)%n", overdue, AnalyticsSnapshot.getExpectedGap());
+        out.println("Pairs:    " + pairs);
+    }
+
+    static String join(int[] numbers) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numbers.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(numbers[i]);
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] arguments) {
+        LottoCli cli;
+        try {
+            cli = parse(arguments);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: [--drawings N | --years N] [--until-jackpot] [--until-tier MATCHES:COUNT] [--picks a,b,c,d,e,f] [--seed S] [--threads T | --fast-forward] [--rng ALGORITHM] [--journal PATH] [--checkpoint PATH [--checkpoint-every SECONDS]] [--metrics SECONDS] [--analytics] [--backtest CSV] [--coordinator PORT [--partitions P] | --worker HOST:PORT]");
+            System.exit(2);
+            return;
+        }
+        try {
+            if (cli.workerHost != null) {
+                cli.serve(System.out);
+            } else {
+                cli.run(System.out);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            // Stopped by the shutdown hook, which must not wait on System.exit
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -1,34 +1,50 @@
 package com.bohannon.lotto;
 
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Pure game logic for the lottery simulator.
  * No Swing dependencies — operates entirely on primitives and int arrays.
- * Accepts an injectable Random for testability.
+ * Accepts an injectable {@link RandomGenerator} (such as a seeded {@link Random}) for testability.
  */
 public class LottoEngine {
 
     public static final int NUM_PICKS = 6;
     public static final int MAX_NUMBER = 50;
     public static final int DRAWINGS_PER_YEAR = 104;
+    /** Drawings per {@link #runDrawings(int)} call used by the headless run loops. */
+    public static final int BATCH_SIZE = 1 << 16;
 
-    private final Random random;
+    /**
+     * Called by {@link #run(StopCondition, int, BatchListener)} on the running thread after every batch.
+     */
+    public interface BatchListener {
+        /**
+         * @param drawings how many drawings the batch ran
+         * @param nanos    how long it took
+         */
+        void batchDone(LottoEngine engine, int drawings, long nanos);
+    }
+
+    private final RandomGenerator random;
 
     private int[] picks;
     private int[] winners;
-    private int matchesOf3;
-    private int matchesOf4;
-    private int matchesOf5;
-    private int matchesOf6;
-    private int drawingCount;
+    private long picksMask;
+    private long winnersMask;
+    private long matchesOf3;
+    private long matchesOf4;
+    private long matchesOf5;
+    private long matchesOf6;
+    private long drawingCount;
     private boolean jackpotHit;
 
     public LottoEngine() {
         this(new Random());
     }
 
-    public LottoEngine(Random random) {
+    public LottoEngine(RandomGenerator random) {
         this.random = random;
         this.picks = new int[NUM_PICKS];
         this.winners = new int[NUM_PICKS];
@@ -46,6 +62,40 @@ public class LottoEngine {
         return false;
     }
 
+    /**
+     * Encode a set of numbers in [1, {@link #MAX_NUMBER}] as a bitmask, with bit {@code n} set for number {@code n}.
+     * Numbers outside the range (e.g. the 0 of an unset pick) are ignored.
+     */
+    public static long toMask(int[] numbers) {
+        long mask = 0L;
+        for (int num : numbers) {
+            if (num >= 1 && num <= MAX_NUMBER) {
+                mask |= 1L << num;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Decode a bitmask produced by {@link #toMask(int[])} into its numbers, in ascending order.
+     */
+    public static int[] fromMask(long mask) {
+        int[] numbers = new int[Long.bitCount(mask)];
+        int i = 0;
+        while (mask != 0L) {
+            numbers[i++] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return numbers;
+    }
+
+    /**
+     * Count how many numbers two bitmasks have in common.
+     */
+    public static int countMatches(long userPicks, long winningNumbers) {
+        return Long.bitCount(userPicks & winningNumbers);
+    }
+
     /**
      * Count how many values in {@code winningNumbers} also appear in {@code userPicks}.
      */
@@ -67,14 +117,43 @@ public class LottoEngine {
      */
     public int[] generateNumbers() {
         int[] numbers = new int[NUM_PICKS];
+        drawInto(numbers);
+        return numbers;
+    }
+
+    /**
+     * Fill {@code numbers} with {@link #NUM_PICKS} unique random numbers, in draw order.
+     * Duplicates are rejected against a bitmask rather than by scanning the array;
+     * the sequence of values taken from the generator is the same either way.
+     * This is the only copy of the draw algorithm, which checkpoints and partitioned runs rely on
+     * reproducing bit for bit.
+     *
+     * @param numbers where to put the numbers, or null to only return the mask
+     * @return the bitmask of the drawn numbers
+     */
+    private long drawInto(int[] numbers) {
+        long mask = 0L;
         for (int i = 0; i < NUM_PICKS; i++) {
             int num;
+            long bit;
             do {
                 num = random.nextInt(MAX_NUMBER) + 1;
-            } while (numberAlreadyUsed(num, numbers, i));
-            numbers[i] = num;
+                bit = 1L << num;
+            } while ((mask & bit) != 0L);
+            mask |= bit;
+            if (numbers != null) {
+                numbers[i] = num;
+            }
         }
-        return numbers;
+        return mask;
+    }
+
+    /**
+     * Generate one draw as a bitmask, consuming the generator exactly as {@link #generateNumbers()} does.
+     * The engine's winners and tallies are not touched.
+     */
+    public long generateMask() {
+        return drawInto(null);
     }
 
     /**
@@ -82,6 +161,7 @@ public class LottoEngine {
      */
     public void generateQuickPick() {
         this.picks = generateNumbers();
+        this.picksMask = toMask(picks);
     }
 
     /**
@@ -90,21 +170,136 @@ public class LottoEngine {
     public void setPicks(int[] userPicks) {
         this.picks = new int[NUM_PICKS];
         System.arraycopy(userPicks, 0, this.picks, 0, NUM_PICKS);
+        this.picksMask = toMask(picks);
     }
 
     /**
      * Run one drawing: generate winners, count matches, update tallies.
+     * The winners array is reused from one drawing to the next.
      *
      * @return the number of matches for this drawing
      */
     public int runOneDrawing() {
         drawingCount++;
-        this.winners = generateNumbers();
-        int matches = countMatches(picks, winners);
+        winnersMask = drawInto(winners);
+        int matches = countMatches(picksMask, winnersMask);
+        recordMatches(matches);
+        return matches;
+    }
+
+    /**
+     * Run up to {@code n} drawings in place, stopping early after a jackpot.
+     * Produces exactly the same draws and tallies as calling {@link #runOneDrawing()} in a loop.
+     *
+     * @return the number of drawings actually run
+     */
+    public int runDrawings(int n) {
+        return runDrawings(n, null, 0);
+    }
+
+    /**
+     * Run up to {@code n} drawings in place, stopping early after a jackpot, and write the
+     * bitmask of each draw into {@code draws} starting at {@code offset}.
+     * Nothing is allocated per drawing; {@code draws} may be null when only tallies are wanted.
+     *
+     * @return the number of drawings actually run (and masks written)
+     */
+    public int runDrawings(int n, long[] draws, int offset) {
+        for (int i = 0; i < n; i++) {
+            int matches = runOneDrawing();
+            if (draws != null) {
+                draws[offset + i] = winnersMask;
+            }
+            if (matches == NUM_PICKS) {
+                return i + 1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Run one batch toward {@code until}: at most {@code batchSize} drawings, never past its drawing
+     * limit, and stopping early after a jackpot. Draw masks are written to {@code draws} if not null.
+     *
+     * @return the number of drawings run, 0 if {@code until} is already met
+     */
+    public int runBatch(StopCondition until, int batchSize, long[] draws) {
+        if (until.check(this) != null) {
+            return 0;
+        }
+        return runDrawings((int) Math.min(batchSize, until.remainingDrawings(this)), draws, 0);
+    }
+
+    /**
+     * Run batches until {@code until} is met. The condition and the thread's interrupt status are
+     * checked between batches only, so cancelling by interrupting the running thread takes effect
+     * within one batch, a few milliseconds at the default {@link #BATCH_SIZE}.
+     *
+     * @param listener told about every batch, or null
+     * @return why the run ended
+     * @throws InterruptedException if the thread was interrupted; the engine keeps the tallies so far
+     */
+    public StopCondition.Reason run(StopCondition until, int batchSize, BatchListener listener)
+            throws InterruptedException {
+        return run(until, batchSize, null, listener);
+    }
+
+    /**
+     * Like {@link #run(StopCondition, int, BatchListener)} with batches of {@code draws.length}, writing
+     * each batch's draw masks into {@code draws} so the listener can read {@code draws[0, drawings)}.
+     */
+    public StopCondition.Reason run(StopCondition until, long[] draws, BatchListener listener)
+            throws InterruptedException {
+        return run(until, draws.length, draws, listener);
+    }
+
+    private StopCondition.Reason run(StopCondition until, int batchSize, long[] draws, BatchListener listener)
+            throws InterruptedException {
+        while (true) {
+            StopCondition.Reason reason = until.check(this);
+            if (reason != null) {
+                return reason;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Simulation cancelled after " + drawingCount + " drawings");
+            }
+            long start = listener == null ? 0L : System.nanoTime();
+            int ran = runBatch(until, batchSize, draws);
+            if (listener != null) {
+                listener.batchDone(this, ran, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Run {@link #BATCH_SIZE} batches until {@code until} is met; see {@link #run(StopCondition, int, BatchListener)}.
+     */
+    public StopCondition.Reason run(StopCondition until) throws InterruptedException {
+        return run(until, BATCH_SIZE, null);
+    }
+
+    /**
+     * Count a drawing whose winners come from outside the engine, e.g. a {@link DrawJournal} replay,
+     * exactly as {@link #runOneDrawing()} would have counted it. No random numbers are used.
+     *
+     * @return the number of matches for this drawing
+     */
+    public int recordDraw(long drawMask) {
+        drawingCount++;
+        setWinnersMask(drawMask);
+        int matches = countMatches(picksMask, drawMask);
         recordMatches(matches);
         return matches;
     }
 
+    private void setWinnersMask(long mask) {
+        winnersMask = mask;
+        for (int i = 0; i < NUM_PICKS && mask != 0L; i++) {
+            winners[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+    }
+
     /**
      * Record a match count into the running totals.
      * Matches of 0, 1, or 2 are ignored (as in the original game).
@@ -137,6 +332,8 @@ public class LottoEngine {
     public void reset() {
         picks = new int[NUM_PICKS];
         winners = new int[NUM_PICKS];
+        picksMask = 0L;
+        winnersMask = 0L;
         matchesOf3 = 0;
         matchesOf4 = 0;
         matchesOf5 = 0;
@@ -145,8 +342,36 @@ public class LottoEngine {
         jackpotHit = false;
     }
 
+    /**
+     * Put back picks, last winners and tallies saved by a {@link Checkpoint}. The winners come back
+     * in ascending order, since a mask does not keep the draw order.
+     */
+    void restore(long savedPicksMask, long savedWinnersMask, SimulationResult tallies) {
+        picks = fromMask(savedPicksMask);
+        picksMask = savedPicksMask;
+        setWinnersMask(savedWinnersMask);
+        drawingCount = tallies.getDrawingCount();
+        matchesOf3 = tallies.getMatchesOf3();
+        matchesOf4 = tallies.getMatchesOf4();
+        matchesOf5 = tallies.getMatchesOf5();
+        matchesOf6 = tallies.getMatchesOf6();
+        jackpotHit = matchesOf6 > 0;
+    }
+
+    /**
+     * Copy the last winners and the current tallies into an immutable snapshot
+     * that can be handed to another thread.
+     */
+    public LottoSnapshot snapshot() {
+        return new LottoSnapshot(winners.clone(), SimulationResult.of(this), jackpotHit);
+    }
+
     // --- Getters ---
 
+    RandomGenerator getRandom() {
+        return random;
+    }
+
     public int[] getPicks() {
         return picks;
     }
@@ -155,28 +380,36 @@ public class LottoEngine {
         return winners;
     }
 
-    public int getMatchesOf3() {
+    public long getPicksMask() {
+        return picksMask;
+    }
+
+    public long getWinnersMask() {
+        return winnersMask;
+    }
+
+    public long getMatchesOf3() {
         return matchesOf3;
     }
 
-    public int getMatchesOf4() {
+    public long getMatchesOf4() {
         return matchesOf4;
     }
 
-    public int getMatchesOf5() {
+    public long getMatchesOf5() {
         return matchesOf5;
     }
 
-    public int getMatchesOf6() {
+    public long getMatchesOf6() {
         return matchesOf6;
     }
 
-    public int getDrawingCount() {
+    public long getDrawingCount() {
         return drawingCount;
     }
 
-    public float getYears() {
-        return (float) drawingCount / DRAWINGS_PER_YEAR;
+    public double getYears() {
+        return (double) drawingCount / DRAWINGS_PER_YEAR;
     }
 
     public boolean isJackpotHit() {
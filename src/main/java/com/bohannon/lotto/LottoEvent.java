@@ -5,21 +5,46 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class LottoEvent implements ItemListener, ActionListener, Runnable {
 
+    /** How often the GUI is refreshed while a simulation is running. */
+    static final int FRAMES_PER_SECOND = 30;
+    /** Drawings the worker runs between snapshots; small enough that Stop takes effect within milliseconds. */
+    static final int GUI_BATCH_SIZE = 4096;
+
     private LottoInterface gui;
     private LottoEngine engine;
-    private Thread playing;
+    private volatile Thread playing;
+    private Thread worker;
+
+    // Latest engine state published by the worker, rendered by the refresh timer on the EDT
+    private final AtomicReference<LottoSnapshot> latest = new AtomicReference<>();
+    private LottoSnapshot rendered;
+    private final Timer refreshTimer;
+    // Started on the first Play and dropped on Reset; only touched on the EDT and by the worker it started
+    private SimulationMetrics metrics;
 
     public LottoEvent(LottoInterface in) {
-        gui = in;
-        engine = new LottoEngine();
+        this(in, new LottoEngine());
     }
 
     public LottoEvent(LottoInterface in, LottoEngine engine) {
         gui = in;
         this.engine = engine;
+        refreshTimer = new Timer(1000 / FRAMES_PER_SECOND, new ActionListener() {
+            public void actionPerformed(ActionEvent event) {
+                renderLatest();
+            }
+        });
+    }
+
+    /**
+     * Metrics of the run since the last reset, or null before Play is first pressed.
+     */
+    SimulationMetrics getMetrics() {
+        return metrics;
     }
 
     public void actionPerformed(ActionEvent event) {
@@ -42,8 +67,15 @@ public class LottoEvent implements ItemListener, ActionListener, Runnable {
     }
 
     void startPlaying() {
-        playing = new Thread(this);
-        playing.start();
+        awaitWorker();
+        syncPicksFromGui();
+        if (metrics == null) {
+            metrics = new SimulationMetrics(1).start("gui", 1000, null);
+        }
+        worker = new Thread(this, "lotto-simulation");
+        playing = worker;
+        worker.start();
+        refreshTimer.start();
         gui.play.setEnabled(false);
         gui.stop.setEnabled(true);
         gui.reset.setEnabled(false);
@@ -58,11 +90,21 @@ public class LottoEvent implements ItemListener, ActionListener, Runnable {
         gui.quickpick.setEnabled(true);
         gui.personal.setEnabled(true);
         playing = null;
+        if (worker != null) {
+            worker.interrupt();
+        }
     }
 
     void clearAllFields() {
+        awaitWorker();
         engine.reset();
-        for (int i = 0; i < 6; i++) {
+        if (metrics != null) {
+            metrics.close();
+            metrics = null;
+        }
+        latest.set(null);
+        rendered = null;
+        for (int i = 0; i < LottoEngine.NUM_PICKS; i++) {
             gui.numbers[i].setText(null);
             gui.winners[i].setText(null);
         }
@@ -77,8 +119,12 @@ public class LottoEvent implements ItemListener, ActionListener, Runnable {
     void exitApplication() {
         if (playing != null) {
             playing = null;
+            worker.interrupt();
         }
 
+        if (metrics != null) {
+            metrics.close();
+        }
         gui.dispose();
         System.exit(0);
     }
@@ -86,62 +132,105 @@ public class LottoEvent implements ItemListener, ActionListener, Runnable {
     public void itemStateChanged(ItemEvent event) {
         Object item = event.getItem();
         if (item == gui.quickpick) {
+            awaitWorker();
             engine.generateQuickPick();
             int[] picks = engine.getPicks();
-            for (int i = 0; i < 6; i++) {
+            for (int i = 0; i < LottoEngine.NUM_PICKS; i++) {
                 gui.numbers[i].setText("" + picks[i]);
             }
         } else {
-            for (int i = 0; i < 6; i++) {
+            for (int i = 0; i < LottoEngine.NUM_PICKS; i++) {
                 gui.numbers[i].setText(null);
             }
         }
     }
 
+    /**
+     * Wait for a stopped worker to finish its last batch before the engine is touched from the EDT.
+     * Stop interrupts the worker, and {@link LottoEngine#run} checks the interrupt status between batches of
+     * {@link #GUI_BATCH_SIZE} drawings, so this returns within milliseconds.
+     */
+    private void awaitWorker() {
+        if (worker != null) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
     /**
      * Read the current user picks from the GUI text fields into the engine.
+     * Called once when play starts, on the EDT.
      */
     private void syncPicksFromGui() {
-        int[] picks = new int[6];
-        for (int i = 0; i < 6; i++) {
+        int[] picks = new int[LottoEngine.NUM_PICKS];
+        for (int i = 0; i < LottoEngine.NUM_PICKS; i++) {
             picks[i] = Integer.parseInt("0" + gui.numbers[i].getText());
         }
         engine.setPicks(picks);
     }
 
     /**
-     * Push all engine state back to the GUI text fields.
+     * Push the most recent engine snapshot to the GUI text fields, if it changed since the last frame.
+     * Runs on the EDT.
      */
-    private void syncGuiFromEngine() {
-        int[] winners = engine.getWinners();
-        for (int i = 0; i < 6; i++) {
+    private void renderLatest() {
+        LottoSnapshot snapshot = latest.get();
+        if (snapshot == null || snapshot == rendered) {
+            return;
+        }
+        rendered = snapshot;
+
+        int[] winners = snapshot.getWinners();
+        for (int i = 0; i < LottoEngine.NUM_PICKS; i++) {
             gui.winners[i].setText("" + winners[i]);
         }
-        gui.got3.setText("" + engine.getMatchesOf3());
-        gui.got4.setText("" + engine.getMatchesOf4());
-        gui.got5.setText("" + engine.getMatchesOf5());
-        gui.got6.setText("" + engine.getMatchesOf6());
-        gui.drawings.setText("" + engine.getDrawingCount());
-        gui.years.setText("" + engine.getYears());
+        SimulationResult tallies = snapshot.getTallies();
+        gui.got3.setText("" + tallies.getMatchesOf3());
+        gui.got4.setText("" + tallies.getMatchesOf4());
+        gui.got5.setText("" + tallies.getMatchesOf5());
+        gui.got6.setText("" + tallies.getMatchesOf6());
+        gui.drawings.setText("" + tallies.getDrawingCount());
+        gui.years.setText(String.format("%.2f", tallies.getYears()));
+        if (metrics != null) {
+            metrics.recordRender(snapshot);
+        }
     }
 
+    /**
+     * Simulation worker: runs drawings at full speed until a jackpot and publishes a snapshot after each batch.
+     * Stop interrupts it, which ends the run at the next batch boundary. It never touches Swing components directly.
+     */
     public void run() {
-        Thread thisThread = Thread.currentThread();
-        while (playing == thisThread) {
-            syncPicksFromGui();
-            engine.runOneDrawing();
-            syncGuiFromEngine();
-
-            if (engine.isJackpotHit()) {
-                stopPlaying();
-                break;
-            }
+        final Thread thisThread = Thread.currentThread();
+        final SimulationMetrics metrics = this.metrics;
+        try {
+            engine.run(StopCondition.jackpot(), GUI_BATCH_SIZE, new LottoEngine.BatchListener() {
+                public void batchDone(LottoEngine engine, int drawings, long nanos) {
+                    LottoSnapshot before = latest.get();
+                    LottoSnapshot snapshot = engine.snapshot();
+                    metrics.recordBatch(before == null ? SimulationResult.EMPTY : before.getTallies(),
+                            snapshot.getTallies(), nanos);
+                    latest.set(snapshot);
+                }
+            });
+        } catch (InterruptedException e) {
+            // Stopped from the GUI; the last published snapshot is already current
+        }
 
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                // do nothing
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                renderLatest();
+                if (playing == thisThread) {
+                    stopPlaying();
+                }
+                if (playing == null) {
+                    refreshTimer.stop();
+                }
             }
-        }
+        });
     }
 }
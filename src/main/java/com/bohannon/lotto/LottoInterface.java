@@ -17,9 +17,9 @@ public class LottoInterface extends JFrame {
     // set up row 2
     JPanel row2 = new JPanel();
     JLabel numbersLabel = new JLabel("Your picks: ", JLabel.RIGHT);
-    JTextField[] numbers = new JTextField[6];
+    JTextField[] numbers = new JTextField[LottoEngine.NUM_PICKS];
     JLabel winnersLabel = new JLabel("Winners: ", JLabel.RIGHT);
-    JTextField[] winners = new JTextField[6];
+    JTextField[] winners = new JTextField[LottoEngine.NUM_PICKS];
 
     // set up row 3
     JPanel row3 = new JPanel();
@@ -75,7 +75,7 @@ public class LottoInterface extends JFrame {
         row2.setLayout(layout2);
         row2.add(numbersLabel);
 
-        for (int i = 0; i < 6; i ++) {
+        for (int i = 0; i < LottoEngine.NUM_PICKS; i ++) {
             numbers[i] = new JTextField();
             numbers[i].setText(String.valueOf(i + 1)); // set the default numbers
             row2.add(numbers[i]);
@@ -83,7 +83,7 @@ public class LottoInterface extends JFrame {
 
         row2.add(winnersLabel);
 
-        for (int i = 0; i < 6; i ++) {
+        for (int i = 0; i < LottoEngine.NUM_PICKS; i ++) {
             winners[i] = new JTextField();
             winners[i].setEditable(false);
             row2.add(winners[i]);
@@ -141,7 +141,12 @@ public class LottoInterface extends JFrame {
         setLocation((int) ((bounds.width / 2) - (size.getWidth() / 2)), (int) ((bounds.height / 2) - (size.getHeight() / 2)));
     }
 
-    public static void main(String[] arguments) {
+    public static void main(String[] arguments) throws InterruptedException {
+        if (arguments.length > 0 || GraphicsEnvironment.isHeadless()) {
+            LottoCli.main(arguments);
+            return;
+        }
+
         final LottoInterface FRAME = new LottoInterface();
 
         FRAME.addWindowListener(new WindowAdapter() {
@@ -0,0 +1,38 @@
+package com.bohannon.lotto;
+
+/**
+ * Immutable copy of an engine's visible state, handed from the simulation thread to the GUI.
+ */
+public final class LottoSnapshot {
+
+    private final int[] winners;
+    private final SimulationResult tallies;
+    private final boolean jackpotHit;
+    private final long createdNanos;
+
+    LottoSnapshot(int[] winners, SimulationResult tallies, boolean jackpotHit) {
+        this.winners = winners;
+        this.tallies = tallies;
+        this.jackpotHit = jackpotHit;
+        this.createdNanos = System.nanoTime();
+    }
+
+    public int[] getWinners() {
+        return winners.clone();
+    }
+
+    public SimulationResult getTallies() {
+        return tallies;
+    }
+
+    public boolean isJackpotHit() {
+        return jackpotHit;
+    }
+
+    /**
+     * {@link System#nanoTime()} when the snapshot was taken, for measuring how stale it is when shown.
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+}
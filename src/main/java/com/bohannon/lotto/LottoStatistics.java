@@ -0,0 +1,113 @@
+package com.bohannon.lotto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe 64-bit drawing and match counters for many concurrent writers.
+ * <p>
+ * The point of this class over five {@code LongAdder}s is a consistent snapshot: separate adders are
+ * summed one after another, so a reader racing the writers can see a batch's drawings without its
+ * matches. Here each stripe is a small seqlock, a sequence number followed by all five counters, so
+ * {@link #snapshot()} sees every {@link #add} call either completely or not at all, and the tallies it
+ * returns never disagree with the drawing count. Stripes are padded apart and each writer thread is
+ * dealt its own in turn, moving on for good if it ever finds it busy, so writers on different cores do
+ * not contend on one cache line.
+ */
+public class LottoStatistics {
+
+    // Cell layout within a stripe: sequence number, then the five counters.
+    // Stripes are 16 longs (128 bytes) apart so two stripes never share a cache line.
+    private static final int SEQ = 0;
+    private static final int DRAWINGS = 1;
+    private static final int MATCHES_OF_3 = 2;
+    private static final int MATCHES_OF_4 = 3;
+    private static final int MATCHES_OF_5 = 4;
+    private static final int MATCHES_OF_6 = 5;
+    private static final int STRIDE = 16;
+
+    // Each thread's preferred stripe before masking, dealt round-robin and advanced on contention
+    private static final AtomicInteger NEXT_PROBE = new AtomicInteger();
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[]{NEXT_PROBE.getAndIncrement()});
+
+    private final AtomicLongArray cells;
+    private final int stripeMask;
+
+    public LottoStatistics() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param expectedWriters roughly how many threads will call {@link #add} concurrently
+     */
+    public LottoStatistics(int expectedWriters) {
+        int stripes = Integer.highestOneBit(Math.max(1, expectedWriters) * 2 - 1) << 1;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * STRIDE);
+    }
+
+    /**
+     * Add a batch of drawings and the matches they produced.
+     */
+    public void add(long drawings, long matchesOf3, long matchesOf4, long matchesOf5, long matchesOf6) {
+        int[] probe = PROBE.get();
+        int stripe = probe[0] & stripeMask;
+        while (true) {
+            int base = stripe * STRIDE;
+            long seq = cells.get(base + SEQ);
+            if ((seq & 1L) == 0L && cells.compareAndSet(base + SEQ, seq, seq + 1)) {
+                cells.lazySet(base + DRAWINGS, cells.get(base + DRAWINGS) + drawings);
+                cells.lazySet(base + MATCHES_OF_3, cells.get(base + MATCHES_OF_3) + matchesOf3);
+                cells.lazySet(base + MATCHES_OF_4, cells.get(base + MATCHES_OF_4) + matchesOf4);
+                cells.lazySet(base + MATCHES_OF_5, cells.get(base + MATCHES_OF_5) + matchesOf5);
+                cells.lazySet(base + MATCHES_OF_6, cells.get(base + MATCHES_OF_6) + matchesOf6);
+                cells.set(base + SEQ, seq + 2);
+                return;
+            }
+            // Stripe busy with another writer: move this thread to the next one instead of spinning here
+            stripe = ++probe[0] & stripeMask;
+        }
+    }
+
+    /**
+     * Add the difference between two results, e.g. an engine's tallies before and after a batch.
+     */
+    public void add(SimulationResult before, SimulationResult after) {
+        add(after.getDrawingCount() - before.getDrawingCount(),
+                after.getMatchesOf3() - before.getMatchesOf3(),
+                after.getMatchesOf4() - before.getMatchesOf4(),
+                after.getMatchesOf5() - before.getMatchesOf5(),
+                after.getMatchesOf6() - before.getMatchesOf6());
+    }
+
+    /**
+     * Return an immutable copy of the totals. Safe to call from any thread while writers are running.
+     */
+    public SimulationResult snapshot() {
+        long drawings = 0, m3 = 0, m4 = 0, m5 = 0, m6 = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * STRIDE;
+            while (true) {
+                long seq = cells.get(base + SEQ);
+                if ((seq & 1L) != 0L) {
+                    Thread.yield();
+                    continue;
+                }
+                long d = cells.get(base + DRAWINGS);
+                long c3 = cells.get(base + MATCHES_OF_3);
+                long c4 = cells.get(base + MATCHES_OF_4);
+                long c5 = cells.get(base + MATCHES_OF_5);
+                long c6 = cells.get(base + MATCHES_OF_6);
+                if (cells.get(base + SEQ) == seq) {
+                    drawings += d;
+                    m3 += c3;
+                    m4 += c4;
+                    m5 += c5;
+                    m6 += c6;
+                    break;
+                }
+            }
+        }
+        return new SimulationResult(drawings, m3, m4, m5, m6);
+    }
+}
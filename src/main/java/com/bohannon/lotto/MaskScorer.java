@@ -0,0 +1,32 @@
+package com.bohannon.lotto;
+
+/**
+ * Batch scoring kernel: AND one key mask with a run of masks, popcount each result and count how many
+ * land on each match tier. The same operation scores one draw against many tickets (see {@link TicketBook})
+ * or one ticket against many draws (see {@link LottoEngine#runDrawings(int, long[], int)}).
+ * <p>
+ * {@link #best()} uses the {@code jdk.incubator.vector} implementation when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and the scalar loop otherwise. Set the system property
+ * {@code lotto.vector=false} to force the scalar loop.
+ */
+public interface MaskScorer {
+
+    /**
+     * Add, for each {@code masks[i]} with {@code i} in [from, to), one to {@code tierCounts[bitCount(masks[i] & key)]}.
+     */
+    void score(long key, long[] masks, int from, int to, long[] tierCounts);
+
+    /**
+     * The plain {@code Long.bitCount} loop; always available.
+     */
+    static MaskScorer scalar() {
+        return ScalarMaskScorer.INSTANCE;
+    }
+
+    /**
+     * The fastest scorer this JVM supports.
+     */
+    static MaskScorer best() {
+        return MaskScorers.BEST;
+    }
+}
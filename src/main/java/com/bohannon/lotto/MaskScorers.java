@@ -0,0 +1,26 @@
+package com.bohannon.lotto;
+
+/**
+ * Picks the {@link MaskScorer} returned by {@link MaskScorer#best()}, once per JVM.
+ */
+final class MaskScorers {
+
+    static final MaskScorer BEST = select();
+
+    private MaskScorers() {
+    }
+
+    private static MaskScorer select() {
+        if (!Boolean.parseBoolean(System.getProperty("lotto.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return MaskScorer.scalar();
+        }
+        try {
+            // Loaded by name so nothing links against the incubator module when it is absent
+            return (MaskScorer) Class.forName("com.bohannon.lotto.VectorMaskScorer")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return MaskScorer.scalar();
+        }
+    }
+}
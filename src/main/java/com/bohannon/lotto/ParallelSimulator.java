@@ -0,0 +1,188 @@
+package com.bohannon.lotto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs a fixed number of drawings across a thread pool.
+ * Each partition gets its own {@link LottoEngine} and its own random stream derived from the master seed
+ * (see {@link RandomStreams#partitions}), so nothing is shared between workers and a given
+ * (algorithm, master seed, partition count) always produces the same merged result.
+ */
+public class ParallelSimulator {
+
+    private final int partitions;
+    private final String algorithm;
+
+    public ParallelSimulator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Use {@link java.util.Random} streams, one per partition.
+     */
+    public ParallelSimulator(int partitions) {
+        this(partitions, RandomStreams.LEGACY);
+    }
+
+    /**
+     * @param algorithm a {@link RandomStreams} algorithm name, e.g. {@code L64X128MixRandom}
+     */
+    public ParallelSimulator(int partitions, String algorithm) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1: " + partitions);
+        }
+        this.partitions = partitions;
+        this.algorithm = algorithm;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Derive the seed of one partition's Random from the master seed (SplitMix64 finalizer),
+     * so neighbouring partitions get unrelated streams.
+     */
+    static long partitionSeed(long masterSeed, int partition) {
+        long z = masterSeed + (partition + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Number of drawings assigned to {@code partition} when {@code drawings} are split evenly.
+     */
+    static long partitionSize(long drawings, int partitions, int partition) {
+        long base = drawings / partitions;
+        return partition < drawings % partitions ? base + 1 : base;
+    }
+
+    /**
+     * Run {@code drawings} drawings against {@code picks} and merge the per-partition tallies.
+     * Jackpots are counted but do not stop the run. Interrupting the calling thread cancels every
+     * partition within one batch.
+     */
+    public SimulationResult run(long drawings, int[] picks, long masterSeed) throws InterruptedException {
+        return run(drawings, picks, masterSeed, null);
+    }
+
+    /**
+     * As {@link #run(long, int[], long)}, also adding each worker's progress to {@code progress}
+     * after every batch so other threads can watch the run through {@link LottoStatistics#snapshot()}.
+     *
+     * @param progress live statistics to update, or null
+     */
+    public SimulationResult run(long drawings, int[] picks, long masterSeed, LottoStatistics progress)
+            throws InterruptedException {
+        return run(drawings, picks, masterSeed, progress, null);
+    }
+
+    /**
+     * As {@link #run(long, int[], long, LottoStatistics)}, also timing every batch into {@code metrics}.
+     *
+     * @param progress live statistics to update, or null
+     * @param metrics  metrics to record each batch into, or null
+     */
+    public SimulationResult run(long drawings, int[] picks, long masterSeed, LottoStatistics progress,
+                                SimulationMetrics metrics) throws InterruptedException {
+        return run(drawings, picks, masterSeed, progress, metrics, null);
+    }
+
+    /**
+     * As {@link #run(long, int[], long, LottoStatistics, SimulationMetrics)}, also feeding every draw into
+     * {@code analytics} through one {@link DrawAnalytics.Shard} per partition.
+     *
+     * @param analytics draw frequencies to update, or null
+     */
+    public SimulationResult run(long drawings, int[] picks, long masterSeed, LottoStatistics progress,
+                                SimulationMetrics metrics, DrawAnalytics analytics) throws InterruptedException {
+        List<RandomGenerator> streams = RandomStreams.partitions(algorithm, masterSeed, partitions);
+        ExecutorService pool = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                futures.add(pool.submit(new Worker(partitionSize(drawings, partitions, p), picks,
+                        streams.get(p), progress, metrics, analytics == null ? null : analytics.newShard())));
+            }
+            SimulationResult total = SimulationResult.EMPTY;
+            for (Future<SimulationResult> future : futures) {
+                total = total.plus(future.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Run one partition of {@link #run(long, int[], long)} on the calling thread: {@code drawings} drawings
+     * against {@code picks} with the partition's own stream.
+     */
+    static SimulationResult runPartition(long drawings, int[] picks, RandomGenerator random)
+            throws InterruptedException {
+        return new Worker(drawings, picks, random, null, null, null).call();
+    }
+
+    private static class Worker implements Callable<SimulationResult> {
+        private final long drawings;
+        private final int[] picks;
+        private final RandomGenerator random;
+        private final LottoStatistics progress;
+        private final SimulationMetrics metrics;
+        private final DrawAnalytics.Shard shard;
+
+        Worker(long drawings, int[] picks, RandomGenerator random, LottoStatistics progress,
+               SimulationMetrics metrics, DrawAnalytics.Shard shard) {
+            this.drawings = drawings;
+            this.picks = picks;
+            this.random = random;
+            this.progress = progress;
+            this.metrics = metrics;
+            this.shard = shard;
+        }
+
+        public SimulationResult call() throws InterruptedException {
+            LottoEngine engine = new LottoEngine(random);
+            engine.setPicks(picks);
+            SimulationResult published = SimulationResult.EMPTY;
+            long[] draws = shard == null ? null : new long[LottoEngine.BATCH_SIZE];
+            long remaining = drawings;
+            while (remaining > 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Partition cancelled");
+                }
+                long start = metrics == null ? 0L : System.nanoTime();
+                int ran = engine.runDrawings((int) Math.min(remaining, LottoEngine.BATCH_SIZE), draws, 0);
+                remaining -= ran;
+                if (shard != null) {
+                    shard.accept(draws, 0, ran);
+                }
+                if (progress != null || metrics != null) {
+                    SimulationResult current = SimulationResult.of(engine);
+                    if (metrics != null) {
+                        metrics.recordBatch(published, current, System.nanoTime() - start);
+                    }
+                    if (progress != null) {
+                        progress.add(published, current);
+                    }
+                    published = current;
+                }
+            }
+            return SimulationResult.of(engine);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bohannon.lotto;
+
+/**
+ * One prize level of a game: how many main numbers must match, whether the bonus ball must match too,
+ * and the fixed prize paid. A prize of 0 means the tier is pari-mutuel or not tracked in money.
+ */
+public final class PrizeTier {
+
+    private final String name;
+    private final int matches;
+    private final boolean bonus;
+    private final long prize;
+
+    public PrizeTier(String name, int matches, boolean bonus, long prize) {
+        if (matches < 0) {
+            throw new IllegalArgumentException("matches must not be negative: " + matches);
+        }
+        this.name = name;
+        this.matches = matches;
+        this.bonus = bonus;
+        this.prize = prize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    public boolean isBonus() {
+        return bonus;
+    }
+
+    public long getPrize() {
+        return prize;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
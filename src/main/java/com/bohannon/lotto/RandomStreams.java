@@ -0,0 +1,105 @@
+package com.bohannon.lotto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates random generators by algorithm name, and sets of non-overlapping, reproducible streams
+ * for parallel partitions from a single master seed.
+ * <p>
+ * Any algorithm known to {@link RandomGeneratorFactory} can be named, e.g. {@code L64X128MixRandom},
+ * {@code Xoroshiro128PlusPlus} or {@code SplittableRandom}. {@link #LEGACY} ({@code "Random"}) keeps
+ * the {@link java.util.Random} sequence, seeding each partition from a mix of the master seed and its index;
+ * its generators are {@link CapturableRandom}s, so their state can be checkpointed.
+ */
+public final class RandomStreams {
+
+    public static final String LEGACY = "Random";
+    public static final String DEFAULT_PARALLEL = "L64X128MixRandom";
+
+    private RandomStreams() {
+    }
+
+    /**
+     * Create one generator of the named algorithm from a seed.
+     *
+     * @throws IllegalArgumentException if the algorithm is unknown
+     */
+    public static RandomGenerator create(String algorithm, long seed) {
+        if (LEGACY.equals(algorithm)) {
+            return new CapturableRandom(seed);
+        }
+        return RandomGeneratorFactory.of(algorithm).create(seed);
+    }
+
+    /**
+     * Stream {@code partition} of {@link #partitions}, for any count larger than {@code partition}, created on
+     * its own so a remote node can run one partition without the others. No other stream is created, but the
+     * cost is still linear in {@code partition}: a jumpable master is jumped {@code partition} times, a few
+     * hundred nanoseconds each, and a splittable one split {@code partition + 1} times, since each split
+     * advances the master, some tens of nanoseconds each.
+     *
+     * @throws IllegalArgumentException if the algorithm is unknown or can neither split nor jump
+     */
+    public static RandomGenerator partition(String algorithm, long masterSeed, int partition) {
+        if (partition < 0) {
+            throw new IllegalArgumentException("partition must not be negative: " + partition);
+        }
+        if (LEGACY.equals(algorithm)) {
+            return new CapturableRandom(ParallelSimulator.partitionSeed(masterSeed, partition));
+        }
+
+        RandomGenerator master = create(algorithm, masterSeed);
+        if (master instanceof RandomGenerator.SplittableGenerator) {
+            RandomGenerator.SplittableGenerator splittable = (RandomGenerator.SplittableGenerator) master;
+            for (int p = 0; p < partition; p++) {
+                splittable.split();
+            }
+            return splittable.split();
+        } else if (master instanceof RandomGenerator.JumpableGenerator) {
+            // Stream p of partitions() is the master after p jumps, as copyAndJump copies before jumping
+            RandomGenerator.JumpableGenerator jumpable = (RandomGenerator.JumpableGenerator) master;
+            for (int p = 0; p < partition; p++) {
+                jumpable.jump();
+            }
+            return jumpable;
+        }
+        throw new IllegalArgumentException(algorithm + " can neither split nor jump ahead");
+    }
+
+    /**
+     * Create {@code count} independent streams for parallel partitions from one master seed.
+     * Splittable algorithms are split from a master generator; jumpable ones are copied and
+     * jumped ahead, so stream {@code p} starts 2^64 or more steps after stream {@code p - 1}.
+     * The same (algorithm, seed, count) always yields the same streams.
+     *
+     * @throws IllegalArgumentException if the algorithm is unknown or can neither split nor jump
+     */
+    public static List<RandomGenerator> partitions(String algorithm, long masterSeed, int count) {
+        List<RandomGenerator> streams = new ArrayList<>(count);
+        if (LEGACY.equals(algorithm)) {
+            for (int p = 0; p < count; p++) {
+                streams.add(new CapturableRandom(ParallelSimulator.partitionSeed(masterSeed, p)));
+            }
+            return streams;
+        }
+
+        RandomGenerator master = create(algorithm, masterSeed);
+        if (master instanceof RandomGenerator.SplittableGenerator) {
+            RandomGenerator.SplittableGenerator splittable = (RandomGenerator.SplittableGenerator) master;
+            for (int p = 0; p < count; p++) {
+                streams.add(splittable.split());
+            }
+        } else if (master instanceof RandomGenerator.JumpableGenerator) {
+            RandomGenerator.JumpableGenerator jumpable = (RandomGenerator.JumpableGenerator) master;
+            for (int p = 0; p < count; p++) {
+                streams.add(jumpable.copyAndJump());
+            }
+        } else {
+            throw new IllegalArgumentException(algorithm + " can neither split nor jump ahead");
+        }
+        return streams;
+    }
+}
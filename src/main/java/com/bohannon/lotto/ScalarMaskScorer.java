@@ -0,0 +1,15 @@
+package com.bohannon.lotto;
+
+/**
+ * Reference {@link MaskScorer}: one {@code Long.bitCount} and one counter increment per mask.
+ */
+final class ScalarMaskScorer implements MaskScorer {
+
+    static final ScalarMaskScorer INSTANCE = new ScalarMaskScorer();
+
+    public void score(long key, long[] masks, int from, int to, long[] tierCounts) {
+        for (int i = from; i < to; i++) {
+            tierCounts[Long.bitCount(masks[i] & key)]++;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.bohannon.lotto;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a {@link SimulationService} over HTTP with a growing number of running sessions and
+ * reports, for each step, the service-wide drawing rate and how long status requests take.
+ *
+ * <pre>
+ * java -cp bohannon-lotto.jar com.bohannon.lotto.ServiceLoadGenerator --sessions 1,10,100,1000,10000 --seconds 5
+ * java -cp bohannon-lotto.jar com.bohannon.lotto.ServiceLoadGenerator --url http://localhost:8080 --sessions 500
+ * </pre>
+ * Without {@code --url} an in-process service on a free loopback port is used.
+ */
+public class ServiceLoadGenerator {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern DRAWINGS = Pattern.compile("\"drawings\":(\\d+)");
+    /** Requests kept in flight while creating or deleting sessions in bulk. */
+    private static final int IN_FLIGHT = 64;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final URI base;
+    private final List<Long> sessionIds = new ArrayList<>();
+
+    public ServiceLoadGenerator(URI base) {
+        this.base = base;
+    }
+
+    /**
+     * Outcome of one load step.
+     */
+    public static final class Step {
+        private final int sessions;
+        private final double drawingsPerSecond;
+        private final double statusMeanMillis;
+        private final double statusMaxMillis;
+
+        Step(int sessions, double drawingsPerSecond, double statusMeanMillis, double statusMaxMillis) {
+            this.sessions = sessions;
+            this.drawingsPerSecond = drawingsPerSecond;
+            this.statusMeanMillis = statusMeanMillis;
+            this.statusMaxMillis = statusMaxMillis;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public double getDrawingsPerSecond() {
+            return drawingsPerSecond;
+        }
+
+        public double getStatusMeanMillis() {
+            return statusMeanMillis;
+        }
+
+        public double getStatusMaxMillis() {
+            return statusMaxMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sessions=%d drawings/s=%.0f per-session=%.0f status mean=%.2fms max=%.2fms",
+                    sessions, drawingsPerSecond, drawingsPerSecond / sessions, statusMeanMillis, statusMaxMillis);
+        }
+    }
+
+    /**
+     * Grow to {@code sessions} running sessions, then measure for {@code millis} while polling the
+     * sessions' status round-robin.
+     */
+    public Step step(int sessions, long millis) throws IOException, InterruptedException {
+        while (sessionIds.size() < sessions) {
+            int batch = Math.min(IN_FLIGHT, sessions - sessionIds.size());
+            List<String> created = sendAll("POST", Collections.nCopies(batch, "/sessions"));
+            List<String> starts = new ArrayList<>(batch);
+            for (String json : created) {
+                long id = extract(ID, json);
+                sessionIds.add(id);
+                starts.add("/sessions/" + id + "/start");
+            }
+            sendAll("POST", starts);
+        }
+
+        long startDrawings = extract(DRAWINGS, send("GET", "/stats"));
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000L;
+        long polls = 0;
+        long pollNanos = 0;
+        long maxPollNanos = 0;
+        while (System.nanoTime() < deadline) {
+            long before = System.nanoTime();
+            send("GET", "/sessions/" + sessionIds.get((int) (polls % sessionIds.size())));
+            long took = System.nanoTime() - before;
+            polls++;
+            pollNanos += took;
+            maxPollNanos = Math.max(maxPollNanos, took);
+        }
+        long drawings = extract(DRAWINGS, send("GET", "/stats")) - startDrawings;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Step(sessions, drawings / seconds, polls == 0 ? 0.0 : pollNanos / 1e6 / polls,
+                maxPollNanos / 1e6);
+    }
+
+    /**
+     * Stop and delete every session this generator created.
+     */
+    public void cleanUp() throws IOException, InterruptedException {
+        for (int from = 0; from < sessionIds.size(); from += IN_FLIGHT) {
+            List<String> deletes = new ArrayList<>(IN_FLIGHT);
+            for (long id : sessionIds.subList(from, Math.min(sessionIds.size(), from + IN_FLIGHT))) {
+                deletes.add("/sessions/" + id);
+            }
+            sendAll("DELETE", deletes);
+        }
+        sessionIds.clear();
+    }
+
+    private HttpRequest request(String method, String path) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private String send(String method, String path) throws IOException, InterruptedException {
+        return check(method, path, client.send(request(method, path), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * Send one request per path concurrently and return the bodies in order.
+     */
+    private List<String> sendAll(String method, List<String> paths) throws IOException, InterruptedException {
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            futures.add(client.sendAsync(request(method, path), HttpResponse.BodyHandlers.ofString()));
+        }
+        List<String> bodies = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            try {
+                bodies.add(check(method, paths.get(i), futures.get(i).get()));
+            } catch (ExecutionException e) {
+                throw new IOException(method + " " + paths.get(i) + " failed", e.getCause());
+            }
+        }
+        return bodies;
+    }
+
+    private static String check(String method, String path, HttpResponse<String> response) throws IOException {
+        if (response.statusCode() >= 300) {
+            throw new IOException(method + " " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static long extract(Pattern pattern, String json) throws IOException {
+        Matcher matcher = pattern.matcher(json);
+        if (!matcher.find()) {
+            throw new IOException("Unexpected response: " + json);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Run every step in {@code sessionSteps} and print one line per step to {@code out}.
+     */
+    public List<Step> run(int[] sessionSteps, long millisPerStep, PrintStream out)
+            throws IOException, InterruptedException {
+        List<Step> steps = new ArrayList<>();
+        try {
+            for (int sessions : sessionSteps) {
+                Step step = step(sessions, millisPerStep);
+                out.println(step);
+                steps.add(step);
+            }
+        } finally {
+            cleanUp();
+        }
+        return steps;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = null;
+        int[] sessionSteps = {1, 10, 100, 1000, 10000};
+        long seconds = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "--sessions":
+                    String[] parts = args[++i].split(",");
+                    sessionSteps = new int[parts.length];
+                    for (int p = 0; p < parts.length; p++) {
+                        sessionSteps[p] = Integer.parseInt(parts[p].trim());
+                    }
+                    break;
+                case "--seconds":
+                    seconds = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Usage: [--url http://host:port] [--sessions n1,n2,...] [--seconds S]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        SimulationService local = url == null ? new SimulationService(0) : null;
+        try {
+            URI base = url != null ? URI.create(url) : local.getUri();
+            if (local != null) {
+                System.out.println("In-process service on " + base
+                        + (local.usesVirtualThreads() ? " (virtual-thread requests)" : " (pooled requests)"));
+            }
+            new ServiceLoadGenerator(base).run(sessionSteps, seconds * 1000, System.out);
+        } finally {
+            if (local != null) {
+                local.close();
+            }
+        }
+    }
+}
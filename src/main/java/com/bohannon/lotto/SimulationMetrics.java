@@ -0,0 +1,304 @@
+package com.bohannon.lotto;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live throughput, latency and utilization figures for a simulation, published as a JMX MBean
+ * and optionally as a periodic log line.
+ * <p>
+ * Workers call {@link #recordBatch} once per batch of drawings, never per drawing, so the cost is
+ * two {@link System#nanoTime()} calls and a handful of uncontended atomic adds per batch; tallies
+ * go through a {@link LottoStatistics}. Anything that renders engine state can report how stale it
+ * was through {@link #recordRender}. Current rates are recomputed by the reporting thread once per
+ * interval, not on the workers.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean, AutoCloseable {
+
+    public static final String DOMAIN = "com.bohannon.lotto";
+    private static final int BUCKETS = 64;
+
+    private final int workers;
+    private final LottoStatistics tallies;
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private final LongAdder renderCount = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final AtomicLong maxRenderNanos = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private volatile long stopNanos;
+
+    // Written by sample() only
+    private long lastSampleNanos = startNanos;
+    private long lastSampleDrawings;
+    private long lastSampleBusy;
+    private volatile double currentRate;
+    private volatile double currentUtilization;
+
+    private ScheduledExecutorService reporter;
+    private ObjectName objectName;
+
+    /**
+     * @param workers how many threads run drawings, for utilization
+     */
+    public SimulationMetrics(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
+        this.workers = workers;
+        this.tallies = new LottoStatistics(workers);
+    }
+
+    /**
+     * Count one batch of drawings that took {@code nanos} to run, given the engine's tallies
+     * before and after it. Safe to call from many worker threads at once.
+     */
+    public void recordBatch(SimulationResult before, SimulationResult after, long nanos) {
+        tallies.add(before, after);
+        busyNanos.add(nanos);
+        latencyBuckets.incrementAndGet(bucket(nanos));
+        if (nanos > maxBatchNanos.get()) {
+            maxBatchNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * Note that {@code snapshot} has just been shown, so its age is the engine-to-screen delay.
+     */
+    public void recordRender(LottoSnapshot snapshot) {
+        long delay = System.nanoTime() - snapshot.getCreatedNanos();
+        renderCount.increment();
+        renderNanos.add(delay);
+        if (delay > maxRenderNanos.get()) {
+            maxRenderNanos.accumulateAndGet(delay, Math::max);
+        }
+    }
+
+    static int bucket(long nanos) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1L, nanos));
+    }
+
+    /**
+     * Register the MBean as {@code com.bohannon.lotto:type=SimulationMetrics,name=<name>}, replacing any
+     * earlier one of that name, and refresh the current rates every {@code intervalMillis}, also printing
+     * {@link #formatLine()} to {@code log} unless it is null.
+     */
+    public synchronized SimulationMetrics start(String name, long intervalMillis, final PrintStream log) {
+        if (reporter != null) {
+            throw new IllegalStateException("Metrics already started");
+        }
+        try {
+            objectName = new ObjectName(DOMAIN + ":type=SimulationMetrics,name=" + name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.registerMBean(this, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean " + name, e);
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lotto-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            sample();
+            if (log != null) {
+                log.println(formatLine());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Stop reporting, freeze the run-wide averages and unregister the MBean.
+     */
+    public synchronized void close() {
+        if (stopNanos == 0) {
+            stopNanos = System.nanoTime();
+        }
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already replaced by a newer registration of the same name
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Recompute the current rate and utilization from the progress since the previous sample.
+     */
+    synchronized void sample() {
+        long now = System.nanoTime();
+        long drawings = tallies.snapshot().getDrawingCount();
+        long busy = busyNanos.sum();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed > 0) {
+            currentRate = (drawings - lastSampleDrawings) * 1e9 / elapsed;
+            currentUtilization = (double) (busy - lastSampleBusy) / ((double) elapsed * workers);
+        }
+        lastSampleNanos = now;
+        lastSampleDrawings = drawings;
+        lastSampleBusy = busy;
+    }
+
+    /**
+     * One-line summary for the periodic log.
+     */
+    public String formatLine() {
+        SimulationResult totals = tallies.snapshot();
+        return String.format("drawings=%d rate=%.0f/s avg=%.0f/s batch p50=%.0fus p99=%.0fus max=%.0fus"
+                        + " util=%.0f%% render=%.1fms 3=%d 4=%d 5=%d 6=%d",
+                totals.getDrawingCount(), getCurrentDrawingsPerSecond(), getAverageDrawingsPerSecond(),
+                getBatchLatencyP50Micros(), getBatchLatencyP99Micros(), getBatchLatencyMaxMicros(),
+                getCurrentWorkerUtilization() * 100, getRenderDelayMeanMillis(),
+                totals.getMatchesOf3(), totals.getMatchesOf4(), totals.getMatchesOf5(), totals.getMatchesOf6());
+    }
+
+    private double elapsedSeconds() {
+        long end = stopNanos != 0 ? stopNanos : System.nanoTime();
+        return Math.max(1L, end - startNanos) / 1e9;
+    }
+
+    private double percentileMicros(double fraction) {
+        long[] histogram = getBatchLatencyHistogram();
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        long target = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return Math.scalb(1.0, i + 1) / 1e3;
+            }
+        }
+        return getBatchLatencyMaxMicros();
+    }
+
+    // --- SimulationMetricsMBean ---
+
+    public SimulationResult getTallies() {
+        return tallies.snapshot();
+    }
+
+    public long getDrawingCount() {
+        return tallies.snapshot().getDrawingCount();
+    }
+
+    public double getAverageDrawingsPerSecond() {
+        return getDrawingCount() / elapsedSeconds();
+    }
+
+    public double getCurrentDrawingsPerSecond() {
+        return currentRate;
+    }
+
+    public long getMatchesOf3() {
+        return tallies.snapshot().getMatchesOf3();
+    }
+
+    public long getMatchesOf4() {
+        return tallies.snapshot().getMatchesOf4();
+    }
+
+    public long getMatchesOf5() {
+        return tallies.snapshot().getMatchesOf5();
+    }
+
+    public long getMatchesOf6() {
+        return tallies.snapshot().getMatchesOf6();
+    }
+
+    public double getMatchesOf3PerSecond() {
+        return getMatchesOf3() / elapsedSeconds();
+    }
+
+    public double getMatchesOf4PerSecond() {
+        return getMatchesOf4() / elapsedSeconds();
+    }
+
+    public double getMatchesOf5PerSecond() {
+        return getMatchesOf5() / elapsedSeconds();
+    }
+
+    public double getMatchesOf6PerSecond() {
+        return getMatchesOf6() / elapsedSeconds();
+    }
+
+    public long getBatchCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += latencyBuckets.get(i);
+        }
+        return total;
+    }
+
+    public double getBatchLatencyMeanMicros() {
+        long batches = getBatchCount();
+        return batches == 0 ? 0.0 : busyNanos.sum() / 1e3 / batches;
+    }
+
+    public double getBatchLatencyP50Micros() {
+        return percentileMicros(0.50);
+    }
+
+    public double getBatchLatencyP99Micros() {
+        return percentileMicros(0.99);
+    }
+
+    public double getBatchLatencyMaxMicros() {
+        return maxBatchNanos.get() / 1e3;
+    }
+
+    public long[] getBatchLatencyHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latencyBuckets.get(i);
+        }
+        return histogram;
+    }
+
+    public double getRenderDelayMeanMillis() {
+        long renders = renderCount.sum();
+        return renders == 0 ? 0.0 : renderNanos.sum() / 1e6 / renders;
+    }
+
+    public double getRenderDelayMaxMillis() {
+        return maxRenderNanos.get() / 1e6;
+    }
+
+    public double getWorkerUtilization() {
+        return busyNanos.sum() / (elapsedSeconds() * 1e9 * workers);
+    }
+
+    public double getCurrentWorkerUtilization() {
+        return currentUtilization;
+    }
+}
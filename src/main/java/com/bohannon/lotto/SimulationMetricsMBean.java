@@ -0,0 +1,54 @@
+package com.bohannon.lotto;
+
+/**
+ * JMX view of a running simulation, registered by {@link SimulationMetrics#start}.
+ * Rates marked "current" cover the last reporting interval; the others cover the whole run.
+ */
+public interface SimulationMetricsMBean {
+
+    long getDrawingCount();
+
+    double getAverageDrawingsPerSecond();
+
+    double getCurrentDrawingsPerSecond();
+
+    long getMatchesOf3();
+
+    long getMatchesOf4();
+
+    long getMatchesOf5();
+
+    long getMatchesOf6();
+
+    /** Matches of 3 per second over the whole run; likewise for the other tiers. */
+    double getMatchesOf3PerSecond();
+
+    double getMatchesOf4PerSecond();
+
+    double getMatchesOf5PerSecond();
+
+    double getMatchesOf6PerSecond();
+
+    long getBatchCount();
+
+    double getBatchLatencyMeanMicros();
+
+    /** Upper bound of the power-of-two histogram bucket holding the given batch latency percentile. */
+    double getBatchLatencyP50Micros();
+
+    double getBatchLatencyP99Micros();
+
+    double getBatchLatencyMaxMicros();
+
+    /** Batch counts by latency, bucket {@code i} holding batches that took [2^i, 2^(i+1)) ns. */
+    long[] getBatchLatencyHistogram();
+
+    double getRenderDelayMeanMillis();
+
+    double getRenderDelayMaxMillis();
+
+    /** Fraction of the workers' wall-clock time spent running drawings, over the whole run. */
+    double getWorkerUtilization();
+
+    double getCurrentWorkerUtilization();
+}
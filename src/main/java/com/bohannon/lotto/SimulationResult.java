@@ -0,0 +1,93 @@
+package com.bohannon.lotto;
+
+/**
+ * Immutable 64-bit tally of a simulation run, suitable for merging the results of
+ * independent workers. Drawing order does not matter, so merging is associative.
+ */
+public final class SimulationResult {
+
+    public static final SimulationResult EMPTY = new SimulationResult(0, 0, 0, 0, 0);
+
+    private final long drawingCount;
+    private final long matchesOf3;
+    private final long matchesOf4;
+    private final long matchesOf5;
+    private final long matchesOf6;
+
+    public SimulationResult(long drawingCount, long matchesOf3, long matchesOf4, long matchesOf5, long matchesOf6) {
+        this.drawingCount = drawingCount;
+        this.matchesOf3 = matchesOf3;
+        this.matchesOf4 = matchesOf4;
+        this.matchesOf5 = matchesOf5;
+        this.matchesOf6 = matchesOf6;
+    }
+
+    /**
+     * Capture the current tallies of an engine.
+     */
+    public static SimulationResult of(LottoEngine engine) {
+        return new SimulationResult(engine.getDrawingCount(), engine.getMatchesOf3(), engine.getMatchesOf4(),
+                engine.getMatchesOf5(), engine.getMatchesOf6());
+    }
+
+    /**
+     * Return the sum of this result and {@code other}.
+     */
+    public SimulationResult plus(SimulationResult other) {
+        return new SimulationResult(drawingCount + other.drawingCount, matchesOf3 + other.matchesOf3,
+                matchesOf4 + other.matchesOf4, matchesOf5 + other.matchesOf5, matchesOf6 + other.matchesOf6);
+    }
+
+    public long getDrawingCount() {
+        return drawingCount;
+    }
+
+    public long getMatchesOf3() {
+        return matchesOf3;
+    }
+
+    public long getMatchesOf4() {
+        return matchesOf4;
+    }
+
+    public long getMatchesOf5() {
+        return matchesOf5;
+    }
+
+    public long getMatchesOf6() {
+        return matchesOf6;
+    }
+
+    public double getYears() {
+        return (double) drawingCount / LottoEngine.DRAWINGS_PER_YEAR;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SimulationResult)) {
+            return false;
+        }
+        SimulationResult that = (SimulationResult) o;
+        return drawingCount == that.drawingCount && matchesOf3 == that.matchesOf3 && matchesOf4 == that.matchesOf4
+                && matchesOf5 == that.matchesOf5 && matchesOf6 == that.matchesOf6;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = drawingCount;
+        h = 31 * h + matchesOf3;
+        h = 31 * h + matchesOf4;
+        h = 31 * h + matchesOf5;
+        h = 31 * h + matchesOf6;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{drawings=" + drawingCount + ", 3=" + matchesOf3 + ", 4=" + matchesOf4
+                + ", 5=" + matchesOf5 + ", 6=" + matchesOf6 + "}";
+    }
+}
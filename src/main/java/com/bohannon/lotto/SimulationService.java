@@ -0,0 +1,433 @@
+package com.bohannon.lotto;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP service hosting many independent simulation sessions in one JVM.
+ * <pre>
+ * POST   /sessions[?picks=a,b,c,d,e,f][&amp;seed=S]   create a session, returns its status
+ * GET    /sessions/{id}                             status: picks, tallies, running, jackpot
+ * POST   /sessions/{id}/start | stop | reset
+ * DELETE /sessions/{id}
+ * GET    /stats                                     session count and service-wide throughput
+ * </pre>
+ * A session is just a {@link LottoEngine} and a few flags; no thread belongs to it. While running it
+ * is advanced {@link #SLICE_DRAWINGS} drawings at a time by short tasks that resubmit themselves to
+ * the back of one shared FIFO queue served by a thread per core, so thousands of running sessions
+ * take turns round-robin. Requests are handled on virtual threads when the JDK has them
+ * ({@code Executors.newVirtualThreadPerTaskExecutor}, Java 21+), otherwise on a cached thread pool;
+ * the drawings themselves are pure CPU work and gain nothing from virtual threads.
+ * Every slice is recorded in a {@link SimulationMetrics} registered as {@code name=service}.
+ */
+public class SimulationService implements AutoCloseable {
+
+    /** Drawings a running session advances per scheduling slice, well under a millisecond of work. */
+    static final int SLICE_DRAWINGS = LottoEvent.GUI_BATCH_SIZE;
+
+    private final HttpServer server;
+    private final ExecutorService simulations;
+    private final ExecutorService requests;
+    private final boolean virtualThreads;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final SimulationMetrics metrics;
+
+    /**
+     * Start serving on {@code port} of the loopback interface; 0 picks a free port.
+     */
+    public SimulationService(int port) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        requests = virtualThreads ? virtual : Executors.newCachedThreadPool();
+        simulations = Executors.newFixedThreadPool(cores, runnable -> {
+            Thread thread = new Thread(runnable, "lotto-session");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics = new SimulationMetrics(cores).start("service", 1000, null);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/sessions", this::handleSessions);
+        server.createContext("/stats", this::handleStats);
+        server.setExecutor(requests);
+        server.start();
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} if this JDK supports it, else null.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Base URI of the service, e.g. {@code http://127.0.0.1:8080/}.
+     */
+    public URI getUri() {
+        InetAddress address = server.getAddress().getAddress();
+        String host = address instanceof Inet6Address ? "[" + address.getHostAddress() + "]" : address.getHostAddress();
+        return URI.create("http://" + host + ":" + getPort() + "/");
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Create a stopped session with the given picks (a quick pick if null) and seed (random if null).
+     */
+    public Session create(int[] picks, Long seed) {
+        long id = nextId.getAndIncrement();
+        CapturableRandom random = seed == null ? new CapturableRandom() : new CapturableRandom(seed);
+        Session session = new Session(id, new LottoEngine(random), picks);
+        sessions.put(id, session);
+        return session;
+    }
+
+    public Session get(long id) {
+        return sessions.get(id);
+    }
+
+    public boolean remove(long id) {
+        Session session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.stop();
+        return true;
+    }
+
+    /**
+     * Stop the HTTP server and every session.
+     */
+    public void close() {
+        server.stop(0);
+        for (Session session : sessions.values()) {
+            session.stop();
+        }
+        sessions.clear();
+        simulations.shutdownNow();
+        requests.shutdownNow();
+        try {
+            simulations.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metrics.close();
+    }
+
+    /**
+     * One user's simulation. All engine access is under the session's lock, held for at most one slice.
+     */
+    public class Session {
+        private final long id;
+        private final LottoEngine engine;
+        private boolean running;
+        private boolean scheduled;
+
+        Session(long id, LottoEngine engine, int[] picks) {
+            this.id = id;
+            this.engine = engine;
+            if (picks == null) {
+                engine.generateQuickPick();
+            } else {
+                engine.setPicks(picks);
+            }
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Start or continue running; does nothing once the jackpot has been hit.
+         */
+        public void start() {
+            synchronized (this) {
+                if (running || engine.isJackpotHit()) {
+                    return;
+                }
+                running = true;
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            simulations.execute(this::runSlice);
+        }
+
+        public synchronized void stop() {
+            running = false;
+        }
+
+        /**
+         * Stop and clear the tallies, keeping the picks.
+         */
+        public synchronized void reset() {
+            running = false;
+            int[] picks = engine.getPicks();
+            engine.reset();
+            engine.setPicks(picks);
+        }
+
+        public synchronized boolean isRunning() {
+            return running;
+        }
+
+        public synchronized LottoSnapshot snapshot() {
+            return engine.snapshot();
+        }
+
+        public synchronized int[] getPicks() {
+            return engine.getPicks().clone();
+        }
+
+        private void runSlice() {
+            synchronized (this) {
+                if (!running) {
+                    scheduled = false;
+                    return;
+                }
+                SimulationResult before = SimulationResult.of(engine);
+                long start = System.nanoTime();
+                engine.runDrawings(SLICE_DRAWINGS);
+                metrics.recordBatch(before, SimulationResult.of(engine), System.nanoTime() - start);
+                if (engine.isJackpotHit()) {
+                    running = false;
+                    scheduled = false;
+                    return;
+                }
+            }
+            try {
+                simulations.execute(this::runSlice);
+            } catch (RejectedExecutionException e) {
+                // The service is closing
+                synchronized (this) {
+                    running = false;
+                    scheduled = false;
+                }
+            }
+        }
+
+        String toJson() {
+            int[] picks;
+            LottoSnapshot snapshot;
+            boolean isRunning;
+            synchronized (this) {
+                picks = engine.getPicks().clone();
+                snapshot = engine.snapshot();
+                isRunning = running;
+            }
+            SimulationResult tallies = snapshot.getTallies();
+            return "{\"id\":" + id
+                    + ",\"running\":" + isRunning
+                    + ",\"jackpot\":" + snapshot.isJackpotHit()
+                    + ",\"picks\":[" + LottoCli.join(picks) + "]"
+                    + ",\"winners\":[" + LottoCli.join(snapshot.getWinners()) + "]"
+                    + ",\"drawings\":" + tallies.getDrawingCount()
+                    + ",\"matchesOf3\":" + tallies.getMatchesOf3()
+                    + ",\"matchesOf4\":" + tallies.getMatchesOf4()
+                    + ",\"matchesOf5\":" + tallies.getMatchesOf5()
+                    + ",\"matchesOf6\":" + tallies.getMatchesOf6() + "}";
+        }
+    }
+
+    // --- HTTP ---
+
+    private void handleSessions(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/", -1);
+            String method = exchange.getRequestMethod();
+            // path is ["", "sessions"] or ["", "sessions", id] or ["", "sessions", id, action]
+            if (!"sessions".equals(path[1]) || path.length > 4) {
+                respond(exchange, 404, error("no such resource"));
+                return;
+            }
+            if (path.length == 2) {
+                if (!"POST".equals(method)) {
+                    respond(exchange, 405, error("use POST to create a session"));
+                    return;
+                }
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                int[] picks = query.containsKey("picks") ? LottoCli.parsePicks(query.get("picks")) : null;
+                Long seed = query.containsKey("seed") ? Long.valueOf(query.get("seed")) : null;
+                respond(exchange, 201, create(picks, seed).toJson());
+                return;
+            }
+
+            Session session = null;
+            long id = 0;
+            if (path[2].matches("[0-9]{1,18}")) {
+                id = Long.parseLong(path[2]);
+                session = sessions.get(id);
+            }
+            if (session == null) {
+                respond(exchange, 404, error("no such session"));
+                return;
+            }
+            if (path.length == 3) {
+                if ("GET".equals(method)) {
+                    respond(exchange, 200, session.toJson());
+                } else if ("DELETE".equals(method)) {
+                    remove(id);
+                    respond(exchange, 200, "{\"id\":" + id + ",\"deleted\":true}");
+                } else {
+                    respond(exchange, 405, error("use GET or DELETE"));
+                }
+                return;
+            }
+            if (!"POST".equals(method)) {
+                respond(exchange, 405, error("use POST"));
+                return;
+            }
+            switch (path[3]) {
+                case "start":
+                    session.start();
+                    break;
+                case "stop":
+                    session.stop();
+                    break;
+                case "reset":
+                    session.reset();
+                    break;
+                default:
+                    respond(exchange, 404, error("unknown action"));
+                    return;
+            }
+            respond(exchange, 200, session.toJson());
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error("internal error: " + e));
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!"/stats".equals(exchange.getRequestURI().getPath())) {
+            respond(exchange, 404, error("no such resource"));
+            return;
+        }
+        int running = 0;
+        for (Session session : sessions.values()) {
+            if (session.isRunning()) {
+                running++;
+            }
+        }
+        respond(exchange, 200, "{\"sessions\":" + sessions.size()
+                + ",\"running\":" + running
+                + ",\"virtualThreads\":" + virtualThreads
+                + ",\"drawings\":" + metrics.getDrawingCount()
+                + ",\"drawingsPerSecond\":" + Math.round(metrics.getCurrentDrawingsPerSecond()) + "}");
+    }
+
+    static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * {@code {"error":"message"}}, with the message escaped; a null message becomes {@code null}.
+     */
+    static String error(String message) {
+        return "{\"error\":" + jsonString(message) + "}";
+    }
+
+    /**
+     * {@code value} as a JSON string literal: quoted, with quotes, backslashes and control characters
+     * escaped, or {@code null} for null.
+     */
+    static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        SimulationService service = new SimulationService(port);
+        System.out.println("Serving simulations on " + service.getUri()
+                + (service.usesVirtualThreads() ? " (virtual-thread requests)" : " (pooled requests)"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.bohannon.lotto;
+
+import java.util.Arrays;
+
+/**
+ * When a simulation run should end: after a jackpot, after a number of drawings or years, or once a
+ * prize tier has been hit a target number of times, in any combination via {@link #or}.
+ * <p>
+ * Conditions are immutable and checked once per batch by {@link LottoEngine#run}, never per drawing.
+ * Drawing limits are exact, because batches are shortened so they never run past them, and a jackpot
+ * ends a batch on the drawing that hit it. A tier target can be overshot by up to one batch.
+ */
+public final class StopCondition {
+
+    /**
+     * Which part of a condition ended the run.
+     */
+    public enum Reason {
+        JACKPOT, DRAWINGS, TIER_TARGET
+    }
+
+    /** Never met: the run goes on until it is cancelled. */
+    public static final StopCondition NEVER = new StopCondition(false, Long.MAX_VALUE, new long[LottoEngine.NUM_PICKS + 1]);
+
+    private final boolean jackpot;
+    private final long maxDrawings;
+    // Indexed by match count; 0 means no target for that tier
+    private final long[] tierTargets;
+
+    private StopCondition(boolean jackpot, long maxDrawings, long[] tierTargets) {
+        this.jackpot = jackpot;
+        this.maxDrawings = maxDrawings;
+        this.tierTargets = tierTargets;
+    }
+
+    public static StopCondition jackpot() {
+        return new StopCondition(true, Long.MAX_VALUE, new long[LottoEngine.NUM_PICKS + 1]);
+    }
+
+    /**
+     * Stop once the engine has run {@code drawings} drawings in total.
+     */
+    public static StopCondition drawings(long drawings) {
+        if (drawings < 0) {
+            throw new IllegalArgumentException("drawings must not be negative: " + drawings);
+        }
+        return new StopCondition(false, drawings, new long[LottoEngine.NUM_PICKS + 1]);
+    }
+
+    /**
+     * Stop after {@code years} years of drawings, at {@link LottoEngine#DRAWINGS_PER_YEAR} a year.
+     */
+    public static StopCondition years(long years) {
+        return drawings(Math.multiplyExact(years, (long) LottoEngine.DRAWINGS_PER_YEAR));
+    }
+
+    /**
+     * Stop once there have been at least {@code count} drawings with exactly {@code matches} matches.
+     *
+     * @param matches a prize tier, 3 to {@link LottoEngine#NUM_PICKS}
+     */
+    public static StopCondition tierCount(int matches, long count) {
+        if (matches < 3 || matches > LottoEngine.NUM_PICKS) {
+            throw new IllegalArgumentException("No prize tier for " + matches + " matches");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        long[] targets = new long[LottoEngine.NUM_PICKS + 1];
+        targets[matches] = count;
+        return new StopCondition(false, Long.MAX_VALUE, targets);
+    }
+
+    /**
+     * A condition met as soon as either this one or {@code other} is.
+     */
+    public StopCondition or(StopCondition other) {
+        long[] targets = new long[LottoEngine.NUM_PICKS + 1];
+        for (int m = 0; m < targets.length; m++) {
+            long a = tierTargets[m];
+            long b = other.tierTargets[m];
+            targets[m] = a == 0 ? b : b == 0 ? a : Math.min(a, b);
+        }
+        return new StopCondition(jackpot || other.jackpot, Math.min(maxDrawings, other.maxDrawings), targets);
+    }
+
+    /**
+     * The reason the engine's run is over, or null if it should go on.
+     */
+    public Reason check(LottoEngine engine) {
+        if (jackpot && engine.isJackpotHit()) {
+            return Reason.JACKPOT;
+        }
+        if (engine.getDrawingCount() >= maxDrawings) {
+            return Reason.DRAWINGS;
+        }
+        if (reached(3, engine.getMatchesOf3()) || reached(4, engine.getMatchesOf4())
+                || reached(5, engine.getMatchesOf5()) || reached(6, engine.getMatchesOf6())) {
+            return Reason.TIER_TARGET;
+        }
+        return null;
+    }
+
+    private boolean reached(int matches, long count) {
+        return tierTargets[matches] != 0 && count >= tierTargets[matches];
+    }
+
+    /**
+     * Drawings left before the drawing limit, {@link Long#MAX_VALUE} if there is none.
+     */
+    public long remainingDrawings(LottoEngine engine) {
+        return maxDrawings == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, maxDrawings - engine.getDrawingCount());
+    }
+
+    public boolean stopsOnJackpot() {
+        return jackpot;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("StopCondition[");
+        if (jackpot) {
+            sb.append("jackpot ");
+        }
+        if (maxDrawings != Long.MAX_VALUE) {
+            sb.append("drawings=").append(maxDrawings).append(' ');
+        }
+        for (int m = 3; m < tierTargets.length; m++) {
+            if (tierTargets[m] != 0) {
+                sb.append(m).append("-of-").append(LottoEngine.NUM_PICKS).append('=').append(tierTargets[m]).append(' ');
+            }
+        }
+        return sb.toString().trim() + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof StopCondition)) {
+            return false;
+        }
+        StopCondition other = (StopCondition) o;
+        return jackpot == other.jackpot && maxDrawings == other.maxDrawings
+                && Arrays.equals(tierTargets, other.tierTargets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Boolean.hashCode(jackpot) + Long.hashCode(maxDrawings)) + Arrays.hashCode(tierTargets);
+    }
+}
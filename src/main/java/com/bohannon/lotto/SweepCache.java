@@ -0,0 +1,164 @@
+package com.bohannon.lotto;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU memo of finished sweep scenarios, keyed by {@link SweepRunner.Scenario#key()}, holding each
+ * result as a small {@code long[]}. Entries evicted from memory are written to a spill directory if one is
+ * given and read back, and promoted, on a later miss; the directory also carries results across runs.
+ * <p>
+ * Spill file layout (little-endian): magic {@code "LSWP"}, format version, key length and UTF-8 key, value
+ * count, then the values as longs. Files are named by a 64-bit hash of the key and written to a temporary
+ * file then renamed. The disk is only a cache: a file that cannot be written or read is treated as missing.
+ */
+public class SweepCache {
+
+    static final int MAGIC = 0x5057534C; // "LSWP" read as a little-endian int
+    static final int VERSION = 1;
+
+    private final int capacity;
+    private final Path spillDirectory;
+    private final LinkedHashMap<String, long[]> entries;
+    private long hits;
+    private long misses;
+    private long spills;
+
+    /**
+     * @param capacity       most results kept in memory
+     * @param spillDirectory where evicted results go, or null to drop them
+     */
+    public SweepCache(int capacity, Path spillDirectory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.spillDirectory = spillDirectory;
+        this.entries = new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                if (size() <= SweepCache.this.capacity) {
+                    return false;
+                }
+                spill(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The memoized result for {@code key}, from memory or the spill directory, or null.
+     */
+    public synchronized long[] get(String key) {
+        long[] value = entries.get(key);
+        if (value == null && spillDirectory != null) {
+            value = read(key);
+            if (value != null) {
+                entries.put(key, value);
+            }
+        }
+        if (value == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return value.clone();
+    }
+
+    public synchronized void put(String key, long[] value) {
+        entries.put(key, value.clone());
+    }
+
+    /**
+     * Write every in-memory entry to the spill directory, e.g. before the process exits.
+     */
+    public synchronized void flush() {
+        for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+            spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Results written to the spill directory so far.
+     */
+    public synchronized long getSpills() {
+        return spills;
+    }
+
+    private void spill(String key, long[] value) {
+        if (spillDirectory == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(16 + keyBytes.length + value.length * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(keyBytes.length).put(keyBytes).putInt(value.length);
+        for (long v : value) {
+            buffer.putLong(v);
+        }
+        Path path = pathFor(key);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(spillDirectory);
+            Files.write(temp, buffer.array());
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            spills++;
+        } catch (IOException e) {
+            // Best effort: the result is simply recomputed if it is needed again
+        }
+    }
+
+    private long[] read(String key) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(pathFor(key))).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            byte[] keyBytes = new byte[buffer.getInt()];
+            buffer.get(keyBytes);
+            if (!key.equals(new String(keyBytes, StandardCharsets.UTF_8))) {
+                return null; // another key with the same hash
+            }
+            long[] value = new long[buffer.getInt()];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = buffer.getLong();
+            }
+            return value;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private Path pathFor(String key) {
+        // FNV-1a, 64-bit
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return spillDirectory.resolve(String.format("%016x.lswp", hash));
+    }
+}
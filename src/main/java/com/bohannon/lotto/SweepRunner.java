@@ -0,0 +1,334 @@
+package com.bohannon.lotto;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs grids of independent scenarios (game, picks, seed, drawing count) and memoizes their results.
+ * <p>
+ * Each scenario is a fresh {@link GameEngine} seeded from the scenario, so a result depends on nothing
+ * but the scenario and can be memoized under its {@link Scenario#key()} in a {@link SweepCache}. A sweep
+ * first answers every scenario it can from the cache, then runs each remaining distinct scenario once on a
+ * work-stealing pool, submitted largest first so the long ones do not end up running alone at the end.
+ * Results are passed to the {@link Listener} on the calling thread as they finish.
+ */
+public class SweepRunner implements AutoCloseable {
+
+    /**
+     * Told about each scenario's result as soon as it is known, on the thread that called {@link #run}.
+     */
+    public interface Listener {
+        void resultReady(int index, Result result);
+    }
+
+    /**
+     * One point of a sweep: exactly {@code drawings} drawings of {@code spec} against one ticket, with a
+     * {@link RandomStreams#LEGACY} generator seeded by {@code seed}. Jackpots are counted but do not stop it.
+     */
+    public static final class Scenario {
+        private final GameSpec spec;
+        private final int[] picks;
+        private final int bonus;
+        private final long seed;
+        private final long drawings;
+
+        /**
+         * @param bonus the bonus ball pick, or 0 for a game without one
+         */
+        public Scenario(GameSpec spec, int[] picks, int bonus, long seed, long drawings) {
+            if (drawings < 0) {
+                throw new IllegalArgumentException("drawings must not be negative: " + drawings);
+            }
+            new GameEngine(spec).setPicks(picks, bonus); // validates the ticket
+            this.spec = spec;
+            this.picks = picks.clone();
+            this.bonus = bonus;
+            this.seed = seed;
+            this.drawings = drawings;
+        }
+
+        /**
+         * A scenario of the default 6-of-50 game.
+         */
+        public static Scenario of(int[] picks, long seed, long drawings) {
+            return new Scenario(GameSpec.DEFAULT, picks, 0, seed, drawings);
+        }
+
+        public GameSpec getSpec() {
+            return spec;
+        }
+
+        public int[] getPicks() {
+            return picks.clone();
+        }
+
+        public int getBonus() {
+            return bonus;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public long getDrawings() {
+            return drawings;
+        }
+
+        /**
+         * Everything the result depends on, including the full game matrix and prize table, as a string.
+         */
+        public String key() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(spec.getName()).append('|').append(spec.getPicks()).append('/').append(spec.getMaxNumber())
+                    .append('+').append(spec.getBonusMax()).append('|');
+            for (PrizeTier tier : spec.getTiers()) {
+                sb.append(tier.getMatches()).append(tier.isBonus() ? "b" : "").append('=').append(tier.getPrize()).append(',');
+            }
+            int[] sorted = picks.clone();
+            Arrays.sort(sorted);
+            sb.append('|').append(LottoCli.join(sorted)).append('+').append(bonus)
+                    .append("|seed=").append(seed).append("|drawings=").append(drawings);
+            return sb.toString();
+        }
+
+        /**
+         * Relative running time, for scheduling the largest scenarios first.
+         */
+        long cost() {
+            return drawings * (spec.getPicks() + (spec.hasBonus() ? 1 : 0));
+        }
+
+        @Override
+        public String toString() {
+            return spec + " " + LottoCli.join(picks) + (bonus > 0 ? "+" + bonus : "") + " seed=" + seed
+                    + " drawings=" + drawings;
+        }
+    }
+
+    /**
+     * Tier counts of a finished scenario, indexed like {@link GameSpec#getTiers()}.
+     */
+    public static final class Result {
+        private final Scenario scenario;
+        private final long drawingCount;
+        private final long[] tierCounts;
+        private final boolean cached;
+        private final long nanos;
+
+        Result(Scenario scenario, long[] values, boolean cached, long nanos) {
+            this.scenario = scenario;
+            this.drawingCount = values[0];
+            this.tierCounts = Arrays.copyOfRange(values, 1, values.length);
+            this.cached = cached;
+            this.nanos = nanos;
+        }
+
+        long[] toValues() {
+            long[] values = new long[tierCounts.length + 1];
+            values[0] = drawingCount;
+            System.arraycopy(tierCounts, 0, values, 1, tierCounts.length);
+            return values;
+        }
+
+        public Scenario getScenario() {
+            return scenario;
+        }
+
+        public long getDrawingCount() {
+            return drawingCount;
+        }
+
+        public long getTierCount(int tier) {
+            return tierCounts[tier];
+        }
+
+        public long[] getTierCounts() {
+            return tierCounts.clone();
+        }
+
+        /**
+         * Sum of the fixed prizes won.
+         */
+        public long getTotalPrize() {
+            List<PrizeTier> tiers = scenario.getSpec().getTiers();
+            long total = 0;
+            for (int i = 0; i < tierCounts.length; i++) {
+                total += tierCounts[i] * tiers.get(i).getPrize();
+            }
+            return total;
+        }
+
+        /**
+         * Whether the result came from the cache rather than a run.
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * Time the run took, 0 for a cached result.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return scenario + " -> " + Arrays.toString(tierCounts) + (cached ? " (cached)" : "");
+        }
+    }
+
+    private final ExecutorService pool;
+    private final SweepCache cache;
+    private final AtomicLong executions = new AtomicLong();
+
+    /**
+     * A runner on every core with an in-memory cache of 10,000 results.
+     */
+    public SweepRunner() {
+        this(Runtime.getRuntime().availableProcessors(), new SweepCache(10_000, null));
+    }
+
+    /**
+     * @param cacheSize      results kept in memory
+     * @param spillDirectory where results evicted from memory are kept, or null
+     */
+    public SweepRunner(int threads, int cacheSize, Path spillDirectory) {
+        this(threads, new SweepCache(cacheSize, spillDirectory));
+    }
+
+    public SweepRunner(int threads, SweepCache cache) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.pool = Executors.newWorkStealingPool(threads);
+        this.cache = cache;
+    }
+
+    public SweepCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Scenarios actually run, as opposed to answered from the cache.
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * Run a sweep. Identical scenarios are run once. Interrupting the calling thread interrupts only its wait
+     * for the next result: this method then throws {@link InterruptedException} and on the way out sets a flag
+     * that the scenarios still running check every {@link LottoEngine#BATCH_SIZE} (65,536) drawings, so they
+     * stop within one batch after the method has returned. Scenarios not yet started are cancelled.
+     *
+     * @param listener told about each result as it is known, or null
+     * @return the results in the order of {@code scenarios}
+     */
+    public List<Result> run(List<Scenario> scenarios, Listener listener) throws InterruptedException {
+        Result[] results = new Result[scenarios.size()];
+        // Scenarios still to run, by key, with the indices waiting for each
+        Map<String, List<Integer>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            Scenario scenario = scenarios.get(i);
+            String key = scenario.key();
+            List<Integer> waiting = pending.get(key);
+            if (waiting != null) {
+                waiting.add(i);
+                continue;
+            }
+            long[] cached = cache.get(key);
+            if (cached != null) {
+                results[i] = new Result(scenario, cached, true, 0L);
+                if (listener != null) {
+                    listener.resultReady(i, results[i]);
+                }
+            } else {
+                waiting = new ArrayList<>();
+                waiting.add(i);
+                pending.put(key, waiting);
+            }
+        }
+
+        List<List<Integer>> jobs = new ArrayList<>(pending.values());
+        jobs.sort((a, b) -> Long.compare(scenarios.get(b.get(0)).cost(), scenarios.get(a.get(0)).cost()));
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Result>> futures = new ArrayList<>(jobs.size());
+        Map<Future<Result>, List<Integer>> indices = new LinkedHashMap<>();
+        try {
+            for (List<Integer> job : jobs) {
+                final Scenario scenario = scenarios.get(job.get(0));
+                Future<Result> future = completion.submit(() -> execute(scenario, cancelled));
+                futures.add(future);
+                indices.put(future, job);
+            }
+            for (int done = 0; done < jobs.size(); done++) {
+                Future<Result> future = completion.take();
+                Result result = future.get();
+                long[] values = result.toValues();
+                cache.put(result.getScenario().key(), values);
+                for (int i : indices.get(future)) {
+                    Scenario scenario = scenarios.get(i);
+                    results[i] = scenario == result.getScenario() ? result
+                            : new Result(scenario, values, false, result.getNanos());
+                    if (listener != null) {
+                        listener.resultReady(i, results[i]);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep scenario failed", e.getCause());
+        } finally {
+            cancelled.set(true);
+            for (Future<Result> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Result execute(Scenario scenario, AtomicBoolean cancelled) throws InterruptedException {
+        executions.incrementAndGet();
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(scenario.getSpec(), RandomStreams.create(RandomStreams.LEGACY, scenario.getSeed()));
+        engine.setPicks(scenario.picks, scenario.getBonus());
+        long remaining = scenario.getDrawings();
+        while (remaining > 0) {
+            if (cancelled.get()) {
+                throw new InterruptedException("Sweep cancelled");
+            }
+            int n = (int) Math.min(remaining, LottoEngine.BATCH_SIZE);
+            for (int i = 0; i < n; i++) {
+                engine.runOneDrawing();
+            }
+            remaining -= n;
+        }
+        long[] values = new long[scenario.getSpec().getTiers().size() + 1];
+        values[0] = engine.getDrawingCount();
+        for (int t = 1; t < values.length; t++) {
+            values[t] = engine.getTierCount(t - 1);
+        }
+        return new Result(scenario, values, false, System.nanoTime() - start);
+    }
+
+    /**
+     * Stop the pool and write the cache's in-memory results to its spill directory, if it has one.
+     */
+    public void close() {
+        pool.shutdownNow();
+        cache.flush();
+    }
+}
@@ -0,0 +1,104 @@
+package com.bohannon.lotto;
+
+import java.util.Arrays;
+
+/**
+ * A compact book of many tickets, stored column-wise as one bitmask per ticket
+ * (see {@link LottoEngine#toMask(int[])}).
+ * Scoring a draw against the whole book is a single sequential pass over a {@code long[]}:
+ * AND with the draw mask, popcount, and bump the tier counter (see {@link MaskScorer}).
+ */
+public class TicketBook {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] masks;
+    private int size;
+
+    public TicketBook() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TicketBook(int capacity) {
+        this.masks = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Build a book of {@code count} quick picks drawn from {@code engine}.
+     */
+    public static TicketBook quickPicks(LottoEngine engine, int count) {
+        TicketBook book = new TicketBook(count);
+        for (int i = 0; i < count; i++) {
+            book.add(engine.generateMask());
+        }
+        return book;
+    }
+
+    /**
+     * Add a ticket given as numbers in [1, {@link LottoEngine#MAX_NUMBER}].
+     */
+    public void add(int[] numbers) {
+        add(LottoEngine.toMask(numbers));
+    }
+
+    /**
+     * Add a ticket given as a bitmask.
+     */
+    public void add(long mask) {
+        if (size == masks.length) {
+            masks = Arrays.copyOf(masks, masks.length * 2);
+        }
+        masks[size++] = mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getMask(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " >= size " + size);
+        }
+        return masks[index];
+    }
+
+    public int[] getTicket(int index) {
+        return LottoEngine.fromMask(getMask(index));
+    }
+
+    /**
+     * Score one draw against every ticket in the book.
+     *
+     * @param drawMask    the winning numbers as a bitmask
+     * @param tierCounts  per-match-count totals, indexed 0..{@link LottoEngine#NUM_PICKS}; incremented in place
+     */
+    public void score(long drawMask, long[] tierCounts) {
+        scoreRange(drawMask, 0, size, tierCounts);
+    }
+
+    /**
+     * Score one draw against tickets {@code [from, to)}; lets callers split a very large book between threads.
+     */
+    public void scoreRange(long drawMask, int from, int to, long[] tierCounts) {
+        MaskScorer.best().score(drawMask, masks, from, to, tierCounts);
+    }
+
+    /**
+     * Score one draw and return fresh per-tier totals, indexed by match count.
+     */
+    public long[] score(long drawMask) {
+        long[] tierCounts = new long[LottoEngine.NUM_PICKS + 1];
+        score(drawMask, tierCounts);
+        return tierCounts;
+    }
+
+    /**
+     * Run {@code drawings} draws from {@code engine} and score each one against the whole book.
+     * The engine's own picks and tallies are not used.
+     */
+    public void simulate(LottoEngine engine, long drawings, long[] tierCounts) {
+        for (long d = 0; d < drawings; d++) {
+            score(engine.generateMask(), tierCounts);
+        }
+    }
+}
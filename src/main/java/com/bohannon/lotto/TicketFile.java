@@ -0,0 +1,202 @@
+package com.bohannon.lotto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A ticket book persisted on disk and scored straight from memory-mapped pages.
+ * <p>
+ * File layout (little-endian): a 16-byte header of magic {@code "LTKT"}, format version and
+ * ticket count, followed by one 8-byte bitmask per ticket (see {@link LottoEngine#toMask(int[])}).
+ * The file is mapped in segments of at most {@link #SEGMENT_TICKETS} tickets, so books larger
+ * than the heap, or than 2 GB, are read from the page cache without copying them onto the heap.
+ */
+public class TicketFile implements Closeable {
+
+    static final int MAGIC = 0x544B544C; // "LTKT" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int SEGMENT_TICKETS = 1 << 27;
+    /** Tickets copied off the mapped pages at a time for {@link MaskScorer#best()}. */
+    static final int CHUNK_TICKETS = 1 << 16;
+
+    private final FileChannel channel;
+    private final long size;
+    private final LongBuffer[] segments;
+
+    private TicketFile(FileChannel channel, long size, LongBuffer[] segments) {
+        this.channel = channel;
+        this.size = size;
+        this.segments = segments;
+    }
+
+    /**
+     * Open and map an existing ticket file read-only.
+     *
+     * @throws IOException if the file cannot be read or is not a ticket file
+     */
+    public static TicketFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated ticket file header: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a ticket file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported ticket file version " + version + ": " + path);
+            }
+            long size = header.getLong();
+            // Compared by division so that a corrupt count cannot overflow the byte length
+            if (size < 0 || size > (channel.size() - HEADER_BYTES) / 8) {
+                throw new IOException("Ticket file header count " + size + " does not fit the file: " + path);
+            }
+
+            int segmentCount = (int) ((size + SEGMENT_TICKETS - 1) / SEGMENT_TICKETS);
+            LongBuffer[] segments = new LongBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s * SEGMENT_TICKETS;
+                long count = Math.min(SEGMENT_TICKETS, size - first);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * 8, count * 8);
+                segments[s] = mapped.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            }
+            return new TicketFile(channel, size, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write every ticket of {@code book} to a new ticket file, replacing any existing file.
+     */
+    public static void write(Path path, TicketBook book) throws IOException {
+        try (Writer writer = create(path)) {
+            for (int i = 0; i < book.size(); i++) {
+                writer.add(book.getMask(i));
+            }
+        }
+    }
+
+    /**
+     * Start a new ticket file for streaming appends, replacing any existing file.
+     */
+    public static Writer create(Path path) throws IOException {
+        return new Writer(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long getMask(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside [0, " + size + ")");
+        }
+        return segments[(int) (index / SEGMENT_TICKETS)].get((int) (index % SEGMENT_TICKETS));
+    }
+
+    /**
+     * Score one draw against every ticket in the file, streaming through the mapped segments in chunks of
+     * {@link #CHUNK_TICKETS} scored by {@link MaskScorer#best()}.
+     *
+     * @param drawMask    the winning numbers as a bitmask
+     * @param tierCounts  per-match-count totals, indexed 0..{@link LottoEngine#NUM_PICKS}; incremented in place
+     */
+    public void score(long drawMask, long[] tierCounts) {
+        MaskScorer scorer = MaskScorer.best();
+        long[] chunk = new long[(int) Math.min(size, CHUNK_TICKETS)];
+        for (LongBuffer segment : segments) {
+            for (int i = 0, n = segment.limit(); i < n; i += chunk.length) {
+                int count = Math.min(chunk.length, n - i);
+                segment.get(i, chunk, 0, count);
+                scorer.score(drawMask, chunk, 0, count, tierCounts);
+            }
+        }
+    }
+
+    /**
+     * Score one draw and return fresh per-tier totals, indexed by match count.
+     */
+    public long[] score(long drawMask) {
+        long[] tierCounts = new long[LottoEngine.NUM_PICKS + 1];
+        score(drawMask, tierCounts);
+        return tierCounts;
+    }
+
+    /**
+     * Close the underlying channel. The mapped pages are released once the buffers are collected.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Appends tickets through a fixed-size direct buffer and fills in the header count on close.
+     */
+    public static class Writer implements Closeable {
+
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long count;
+
+        Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_BYTES);
+        }
+
+        public void add(int[] numbers) throws IOException {
+            add(LottoEngine.toMask(numbers));
+        }
+
+        public void add(long mask) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(mask);
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(count).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bohannon.lotto;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link MaskScorer} on the Vector API. Each step ANDs a full vector of masks with the key and popcounts
+ * every lane. Each lane keeps a packed counter with one byte per tier, bumped by {@code 1L << (8 * matches)}.
+ * The packed counters are flushed to {@code tierCounts} before any byte can overflow.
+ * Only loaded through {@link MaskScorer#best()} when {@code jdk.incubator.vector} is present.
+ */
+final class VectorMaskScorer implements MaskScorer {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int TIERS = LottoEngine.NUM_PICKS + 1;
+    // Vectors per flush: each lane's byte counters take at most one increment per vector
+    private static final int FLUSH_INTERVAL = 255;
+
+    public void score(long key, long[] masks, int from, int to, long[] tierCounts) {
+        // Packed byte counters need every popcount to fit tiers 0..7
+        if (tierCounts.length != TIERS || Long.bitCount(key) >= Long.BYTES) {
+            ScalarMaskScorer.INSTANCE.score(key, masks, from, to, tierCounts);
+            return;
+        }
+        int step = SPECIES.length();
+        int upper = from + SPECIES.loopBound(to - from);
+        LongVector keys = LongVector.broadcast(SPECIES, key);
+        LongVector one = LongVector.broadcast(SPECIES, 1L);
+        int i = from;
+        while (i < upper) {
+            int chunkEnd = Math.min(upper, i + FLUSH_INTERVAL * step);
+            LongVector packed = LongVector.zero(SPECIES);
+            for (; i < chunkEnd; i += step) {
+                LongVector bits = popcount(LongVector.fromArray(SPECIES, masks, i).and(keys));
+                packed = packed.add(one.lanewise(VectorOperators.LSHL, bits.lanewise(VectorOperators.LSHL, 3)));
+            }
+            for (int t = 0; t < TIERS; t++) {
+                tierCounts[t] += packed.lanewise(VectorOperators.LSHR, 8 * t).and(0xFFL)
+                        .reduceLanes(VectorOperators.ADD);
+            }
+        }
+
+        ScalarMaskScorer.INSTANCE.score(key, masks, upper, to, tierCounts);
+    }
+
+    /**
+     * Lane-wise popcount with shifts, ANDs and adds only (SWAR), since the JDK 17 API has no bit-count operator.
+     */
+    private static LongVector popcount(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 32));
+        return x.and(0x7FL);
+    }
+}
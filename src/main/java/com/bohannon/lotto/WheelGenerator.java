@@ -0,0 +1,450 @@
+package com.bohannon.lotto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builds lottery wheels: a small set of tickets drawn from a pool of chosen numbers that guarantees
+ * at least {@code guarantee} matches on some ticket whenever {@code ifDrawn} of the drawn numbers are
+ * in the pool, e.g. "3 if 3" or "3 if 4". In design terms this is a covering of every {@code ifDrawn}-subset
+ * of the pool (a <i>condition</i>) by {@link LottoEngine#NUM_PICKS}-subsets meeting it in {@code guarantee} numbers.
+ * <p>
+ * Tickets and conditions are 64-bit masks over pool positions 1..v, and conditions are identified by
+ * their {@link Combinadic} rank. A search keeps, per condition, how many tickets cover it plus a bitset of
+ * the uncovered ones, so a move costs only the conditions the changed ticket covers. The search starts from
+ * a greedy wheel and then runs simulated annealing on every core for a wheel one ticket smaller than the best
+ * so far, with restarts, until the time budget is spent or the counting lower bound is reached. The result
+ * is verified exactly by {@link #countUncovered(TicketBook)}; which of several equally small wheels comes
+ * back depends on timing.
+ */
+public class WheelGenerator {
+
+    /** Most conditions a generator will track; each search keeps an int per condition. */
+    static final int MAX_CONDITIONS = 1 << 22;
+    /** Annealing moves per attempt before restarting from a fresh random wheel. */
+    static final int ROUND_MOVES = 200_000;
+    private static final int GREEDY_CANDIDATES = 32;
+    private static final double START_TEMPERATURE = 1.0;
+    private static final double END_TEMPERATURE = 0.02;
+
+    private final int[] pool;
+    private final int guarantee;
+    private final int ifDrawn;
+    private final int size;
+    private final Combinadic conditions;
+    private final int conditionCount;
+    private final int coverSize;
+    // For each inside count j in [guarantee, ifDrawn]: j-combinations of a ticket's positions and
+    // (ifDrawn - j)-combinations of the other pool positions, as masks over position indices
+    private final long[][] insideCombos;
+    private final long[][] outsideCombos;
+
+    /**
+     * @param numbers  the pool, distinct numbers in [1, {@link LottoEngine#MAX_NUMBER}], at least {@link LottoEngine#NUM_PICKS}
+     * @param guarantee matches guaranteed on at least one ticket
+     * @param ifDrawn  how many drawn numbers must be in the pool for the guarantee to hold
+     * @throws IllegalArgumentException if the pool or condition is invalid, or the pool has too many conditions to track
+     */
+    public WheelGenerator(int[] numbers, int guarantee, int ifDrawn) {
+        int k = LottoEngine.NUM_PICKS;
+        if (numbers.length < k || numbers.length > LottoEngine.MAX_NUMBER) {
+            throw new IllegalArgumentException("A pool needs " + k + " to " + LottoEngine.MAX_NUMBER + " numbers: " + numbers.length);
+        }
+        long mask = 0L;
+        for (int n : numbers) {
+            if (n < 1 || n > LottoEngine.MAX_NUMBER) {
+                throw new IllegalArgumentException("Number out of range: " + n);
+            }
+            mask |= 1L << n;
+        }
+        if (Long.bitCount(mask) != numbers.length) {
+            throw new IllegalArgumentException("Pool numbers must be unique: " + Arrays.toString(numbers));
+        }
+        if (ifDrawn < 1 || ifDrawn > k || guarantee < 1 || guarantee > ifDrawn) {
+            throw new IllegalArgumentException("Unsupported guarantee " + guarantee + " if " + ifDrawn);
+        }
+        long count = Combinatorics.binomial(numbers.length, ifDrawn);
+        if (count > MAX_CONDITIONS) {
+            throw new IllegalArgumentException(count + " conditions for " + guarantee + " if " + ifDrawn
+                    + " on " + numbers.length + " numbers; at most " + MAX_CONDITIONS + " are supported");
+        }
+
+        this.pool = LottoEngine.fromMask(mask);
+        this.size = numbers.length;
+        this.guarantee = guarantee;
+        this.ifDrawn = ifDrawn;
+        this.conditions = new Combinadic(size, ifDrawn);
+        this.conditionCount = (int) count;
+
+        int levels = ifDrawn - guarantee + 1;
+        insideCombos = new long[levels][];
+        outsideCombos = new long[levels][];
+        int cover = 0;
+        for (int j = guarantee; j <= ifDrawn; j++) {
+            insideCombos[j - guarantee] = combinations(k, j);
+            outsideCombos[j - guarantee] = combinations(size - k, ifDrawn - j);
+            cover += insideCombos[j - guarantee].length * outsideCombos[j - guarantee].length;
+        }
+        this.coverSize = cover;
+    }
+
+    /**
+     * Every {@code r}-subset of {@code n} indices as a mask, in Gosper's-hack order.
+     */
+    static long[] combinations(int n, int r) {
+        if (r < 0 || r > n) {
+            return new long[0];
+        }
+        long[] combos = new long[(int) Combinatorics.binomial(n, r)];
+        if (r == 0) {
+            return combos;
+        }
+        long c = (1L << r) - 1;
+        for (int i = 0; i < combos.length; i++) {
+            combos[i] = c;
+            long lowest = c & -c;
+            long ripple = c + lowest;
+            c = ripple | (((ripple ^ c) / lowest) >>> 2);
+        }
+        return combos;
+    }
+
+    public int[] getPool() {
+        return pool.clone();
+    }
+
+    public int getGuarantee() {
+        return guarantee;
+    }
+
+    public int getIfDrawn() {
+        return ifDrawn;
+    }
+
+    /**
+     * Number of {@code ifDrawn}-subsets of the pool a wheel must cover.
+     */
+    public int getConditionCount() {
+        return conditionCount;
+    }
+
+    /**
+     * No wheel has fewer tickets than this: each ticket covers at most a fixed number of conditions.
+     */
+    public int getLowerBound() {
+        return (conditionCount + coverSize - 1) / coverSize;
+    }
+
+    /**
+     * Search on every core for {@code millis} milliseconds.
+     */
+    public TicketBook generate(long seed, long millis) throws InterruptedException {
+        return generate(seed, millis, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Build a greedy wheel, then search on {@code threads} threads for smaller ones for up to {@code millis}
+     * milliseconds, and return the smallest wheel found. Every ticket uses only pool numbers.
+     */
+    public TicketBook generate(long seed, long millis, int threads) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        List<RandomGenerator> streams = RandomStreams.partitions(RandomStreams.DEFAULT_PARALLEL, seed, threads);
+        final AtomicReference<long[]> best = new AtomicReference<>(new Search(streams.get(0)).greedy());
+        final long deadline = System.nanoTime() + millis * 1_000_000L;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int p = 0; p < threads; p++) {
+                final Search search = new Search(streams.get(p));
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+                            int target = best.get().length - 1;
+                            if (target < getLowerBound()) {
+                                break;
+                            }
+                            if (search.anneal(target, ROUND_MOVES, deadline)) {
+                                final long[] found = search.tickets();
+                                best.accumulateAndGet(found, (current, next) -> next.length < current.length ? next : current);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Wheel search failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return toBook(best.get());
+    }
+
+    /**
+     * Exactly count the conditions no ticket of {@code book} covers, by checking every condition against
+     * every ticket. Numbers outside the pool count for nothing.
+     */
+    public long countUncovered(TicketBook book) {
+        long[] tickets = new long[book.size()];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = toLocal(book.getMask(i));
+        }
+        long uncovered = 0;
+        for (int r = 0; r < conditionCount; r++) {
+            long condition = conditions.unrankMask(r);
+            boolean covered = false;
+            for (long ticket : tickets) {
+                if (Long.bitCount(ticket & condition) >= guarantee) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                uncovered++;
+            }
+        }
+        return uncovered;
+    }
+
+    /**
+     * Whether {@code book} keeps the guarantee for every possible draw.
+     */
+    public boolean covers(TicketBook book) {
+        return countUncovered(book) == 0;
+    }
+
+    private TicketBook toBook(long[] localTickets) {
+        TicketBook book = new TicketBook(localTickets.length);
+        for (long local : localTickets) {
+            long global = 0L;
+            while (local != 0L) {
+                global |= 1L << pool[Long.numberOfTrailingZeros(local) - 1];
+                local &= local - 1;
+            }
+            book.add(global);
+        }
+        return book;
+    }
+
+    private long toLocal(long global) {
+        long local = 0L;
+        for (int i = 0; i < size; i++) {
+            if ((global & (1L << pool[i])) != 0) {
+                local |= 1L << (i + 1);
+            }
+        }
+        return local;
+    }
+
+    /**
+     * One thread's search state: a wheel and, for every condition, how many of its tickets cover it.
+     */
+    private final class Search {
+        private final RandomGenerator random;
+        private final int[] cover = new int[conditionCount];
+        private final long[] uncoveredBits = new long[(conditionCount + 63) >>> 6];
+        private final int[] ranks = new int[coverSize];
+        private final int[] inside = new int[LottoEngine.NUM_PICKS];
+        private final int[] outside = new int[size];
+        private long[] tickets = new long[16];
+        private int count;
+        private int uncovered;
+
+        Search(RandomGenerator random) {
+            this.random = random;
+        }
+
+        long[] tickets() {
+            return Arrays.copyOf(tickets, count);
+        }
+
+        private void clear() {
+            Arrays.fill(cover, 0);
+            Arrays.fill(uncoveredBits, -1L);
+            if ((conditionCount & 63) != 0) {
+                uncoveredBits[uncoveredBits.length - 1] = (1L << (conditionCount & 63)) - 1;
+            }
+            uncovered = conditionCount;
+            count = 0;
+        }
+
+        /**
+         * Fill {@link #ranks} with the conditions {@code ticket} covers and return how many there are.
+         */
+        private int covered(long ticket) {
+            int in = 0;
+            int out = 0;
+            for (int p = 1; p <= size; p++) {
+                if ((ticket & (1L << p)) != 0) {
+                    inside[in++] = p;
+                } else {
+                    outside[out++] = p;
+                }
+            }
+            int n = 0;
+            for (int level = 0; level < insideCombos.length; level++) {
+                for (long a : insideCombos[level]) {
+                    long part = expand(a, inside);
+                    for (long b : outsideCombos[level]) {
+                        ranks[n++] = conditions.rank(part | expand(b, outside));
+                    }
+                }
+            }
+            return n;
+        }
+
+        private long expand(long indices, int[] positions) {
+            long mask = 0L;
+            while (indices != 0L) {
+                mask |= 1L << positions[Long.numberOfTrailingZeros(indices)];
+                indices &= indices - 1;
+            }
+            return mask;
+        }
+
+        private void add(long ticket) {
+            int n = covered(ticket);
+            for (int i = 0; i < n; i++) {
+                int r = ranks[i];
+                if (cover[r]++ == 0) {
+                    uncoveredBits[r >>> 6] &= ~(1L << r);
+                    uncovered--;
+                }
+            }
+        }
+
+        private void remove(long ticket) {
+            int n = covered(ticket);
+            for (int i = 0; i < n; i++) {
+                int r = ranks[i];
+                if (--cover[r] == 0) {
+                    uncoveredBits[r >>> 6] |= 1L << r;
+                    uncovered++;
+                }
+            }
+        }
+
+        private int newlyCovered(long ticket) {
+            int n = covered(ticket);
+            int gain = 0;
+            for (int i = 0; i < n; i++) {
+                if (cover[ranks[i]] == 0) {
+                    gain++;
+                }
+            }
+            return gain;
+        }
+
+        private int randomUncovered() {
+            int w = random.nextInt(uncoveredBits.length);
+            while (uncoveredBits[w] == 0L) {
+                w = w + 1 == uncoveredBits.length ? 0 : w + 1;
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(randomBit(uncoveredBits[w]));
+        }
+
+        private long randomBit(long mask) {
+            for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+                mask &= mask - 1;
+            }
+            return mask & -mask;
+        }
+
+        private long randomTicket() {
+            long ticket = 0L;
+            while (Long.bitCount(ticket) < LottoEngine.NUM_PICKS) {
+                ticket |= 1L << (1 + random.nextInt(size));
+            }
+            return ticket;
+        }
+
+        /**
+         * Greedy wheel: while a condition is uncovered, add the best of a few random tickets containing it.
+         */
+        long[] greedy() {
+            clear();
+            while (uncovered > 0) {
+                int w = 0;
+                while (uncoveredBits[w] == 0L) {
+                    w++;
+                }
+                long condition = conditions.unrankMask((w << 6) + Long.numberOfTrailingZeros(uncoveredBits[w]));
+                long best = 0L;
+                int bestGain = -1;
+                for (int c = 0; c < GREEDY_CANDIDATES; c++) {
+                    long ticket = condition;
+                    while (Long.bitCount(ticket) < LottoEngine.NUM_PICKS) {
+                        ticket |= 1L << (1 + random.nextInt(size));
+                    }
+                    int gain = newlyCovered(ticket);
+                    if (gain > bestGain) {
+                        best = ticket;
+                        bestGain = gain;
+                    }
+                }
+                append(best);
+            }
+            return tickets();
+        }
+
+        private void append(long ticket) {
+            if (count == tickets.length) {
+                tickets = Arrays.copyOf(tickets, count * 2);
+            }
+            tickets[count++] = ticket;
+            add(ticket);
+        }
+
+        /**
+         * Anneal a random wheel of {@code target} tickets for up to {@code moves} moves. A move takes an
+         * uncovered condition and a random ticket and swaps one of the ticket's other numbers for one of the
+         * condition's, so the ticket meets the condition in one more number.
+         *
+         * @return true if the wheel now covers every condition
+         */
+        boolean anneal(int target, int moves, long deadline) {
+            clear();
+            for (int i = 0; i < target; i++) {
+                append(randomTicket());
+            }
+            double temperature = START_TEMPERATURE;
+            double cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1.0 / moves);
+            for (int move = 0; move < moves && uncovered > 0; move++) {
+                if ((move & 1023) == 0 && (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted())) {
+                    return false;
+                }
+                long condition = conditions.unrankMask(randomUncovered());
+                int i = random.nextInt(count);
+                long ticket = tickets[i];
+                long next = ticket ^ randomBit(ticket & ~condition) ^ randomBit(condition & ~ticket);
+
+                int before = uncovered;
+                remove(ticket);
+                add(next);
+                int delta = uncovered - before;
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    tickets[i] = next;
+                } else {
+                    remove(next);
+                    add(ticket);
+                }
+                temperature *= cooling;
+            }
+            return uncovered == 0;
+        }
+    }
+}
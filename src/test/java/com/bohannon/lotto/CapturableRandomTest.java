@@ -0,0 +1,53 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CapturableRandomTest {
+
+    @Test
+    public void testSameSequenceAsRandom() {
+        Random expected = new Random(42);
+        CapturableRandom actual = new CapturableRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.nextInt(LottoEngine.MAX_NUMBER), actual.nextInt(LottoEngine.MAX_NUMBER));
+            assertEquals(expected.nextLong(), actual.nextLong());
+            assertEquals(expected.nextDouble(), actual.nextDouble(), 0.0);
+            assertEquals(expected.nextBoolean(), actual.nextBoolean());
+        }
+    }
+
+    @Test
+    public void testSetSeed_matchesRandom() {
+        Random expected = new Random(1);
+        CapturableRandom actual = new CapturableRandom(2);
+        expected.setSeed(99);
+        actual.setSeed(99);
+        assertEquals(expected.nextLong(), actual.nextLong());
+    }
+
+    @Test
+    public void testSetState_continuesSequence() {
+        CapturableRandom original = new CapturableRandom(7);
+        for (int i = 0; i < 500; i++) {
+            original.nextInt();
+        }
+        CapturableRandom copy = new CapturableRandom();
+        copy.setState(original.getState());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(original.nextInt(), copy.nextInt());
+        }
+    }
+
+    @Test
+    public void testEngine_sameDrawsAsRandom() {
+        LottoEngine expected = new LottoEngine(new Random(3));
+        LottoEngine actual = new LottoEngine(RandomStreams.create(RandomStreams.LEGACY, 3));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.generateMask(), actual.generateMask());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bohannon.lotto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveThenLoad_continuesBitForBit() throws IOException {
+        LottoEngine uninterrupted = new LottoEngine(new CapturableRandom(17));
+        uninterrupted.setPicks(new int[]{2, 11, 19, 26, 33, 47});
+        uninterrupted.runDrawings(150000);
+
+        LottoEngine interrupted = new LottoEngine(new CapturableRandom(17));
+        interrupted.setPicks(new int[]{2, 11, 19, 26, 33, 47});
+        interrupted.runDrawings(60000);
+        Path path = folder.getRoot().toPath().resolve("run.lckp");
+        Checkpoint.save(path, interrupted);
+        assertEquals(Checkpoint.BYTES, Files.size(path));
+        assertFalse(Files.exists(path.resolveSibling("run.lckp.tmp")));
+
+        LottoEngine resumed = Checkpoint.load(path);
+        assertArrayEquals(interrupted.getPicks(), resumed.getPicks());
+        assertEquals(SimulationResult.of(interrupted), SimulationResult.of(resumed));
+        assertEquals(interrupted.getWinnersMask(), resumed.getWinnersMask());
+
+        resumed.runDrawings(90000);
+        assertEquals(SimulationResult.of(uninterrupted), SimulationResult.of(resumed));
+        assertEquals(uninterrupted.getWinnersMask(), resumed.getWinnersMask());
+        assertEquals(uninterrupted.generateMask(), resumed.generateMask());
+    }
+
+    @Test
+    public void testSave_replacesPreviousCheckpoint() throws IOException {
+        LottoEngine engine = new LottoEngine(new CapturableRandom(4));
+        engine.generateQuickPick();
+        Path path = folder.getRoot().toPath().resolve("twice.lckp");
+        engine.runDrawings(1000);
+        Checkpoint.save(path, engine);
+        engine.runDrawings(1000);
+        Checkpoint.save(path, engine);
+        assertEquals(2000, Checkpoint.load(path).getDrawingCount());
+    }
+
+    @Test
+    public void testLoad_restoresJackpotFlag() throws IOException {
+        LottoEngine engine = new LottoEngine(new CapturableRandom(5));
+        engine.setPicks(LottoEngine.fromMask(LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6})));
+        engine.recordDraw(LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6}));
+        Path path = folder.getRoot().toPath().resolve("jackpot.lckp");
+        Checkpoint.save(path, engine);
+        LottoEngine resumed = Checkpoint.load(path);
+        assertTrue(resumed.isJackpotHit());
+        assertEquals(1, resumed.getMatchesOf6());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSave_rejectsOpaqueGenerator() throws IOException {
+        LottoEngine engine = new LottoEngine(new Random(1));
+        Checkpoint.save(folder.getRoot().toPath().resolve("opaque.lckp"), engine);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoad_rejectsCorruptFile() throws IOException {
+        LottoEngine engine = new LottoEngine(new CapturableRandom(6));
+        engine.generateQuickPick();
+        Path path = folder.getRoot().toPath().resolve("corrupt.lckp");
+        Checkpoint.save(path, engine);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[20] ^= 1;
+        Files.write(path, bytes);
+        Checkpoint.load(path);
+    }
+
+    @Test
+    public void testCli_resumeMatchesUninterruptedRun() throws Exception {
+        String[] common = {"--seed", "8", "--picks", "5,10,15,20,25,30"};
+        SimulationResult expected = LottoCli.parse(concat(common, "--drawings", "300000"))
+                .run(new PrintStream(new ByteArrayOutputStream()));
+
+        Path checkpoint = folder.getRoot().toPath().resolve("cli.lckp");
+        Path journal = folder.getRoot().toPath().resolve("cli.ldrj");
+        LottoCli.parse(concat(common, "--drawings", "100000", "--checkpoint", checkpoint.toString(),
+                "--journal", journal.toString())).run(new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(100000, Checkpoint.load(checkpoint).getDrawingCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimulationResult resumed = LottoCli.parse(concat(common, "--drawings", "300000", "--checkpoint",
+                checkpoint.toString(), "--journal", journal.toString())).run(new PrintStream(bytes));
+        assertTrue(bytes.toString().contains("at drawing 100000"));
+        assertEquals(expected, resumed);
+        try (DrawJournal draws = DrawJournal.open(journal)) {
+            assertEquals(300000, draws.size());
+        }
+    }
+
+    @Test
+    public void testCli_stopSavesCheckpointInStepWithJournal() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("stop.lckp");
+        Path journal = folder.getRoot().toPath().resolve("stop.ldrj");
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "1000000000000", "--seed", "3", "--checkpoint",
+                checkpoint.toString(), "--journal", journal.toString()});
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            cli.requestStop();
+        });
+        stopper.start();
+        try {
+            cli.run(new PrintStream(new ByteArrayOutputStream()));
+            fail("expected the run to stop");
+        } catch (InterruptedException e) {
+            assertTrue(e.getMessage().contains("cancelled"));
+        } finally {
+            stopper.join();
+        }
+        long saved = Checkpoint.load(checkpoint).getDrawingCount();
+        try (DrawJournal draws = DrawJournal.open(journal)) {
+            assertEquals(saved, draws.size());
+        }
+    }
+
+    @Test
+    public void testCli_resumeChecksPicksAndWarnsAboutSeed() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("flags.lckp");
+        LottoCli.parse(new String[]{"--drawings", "1000", "--picks", "5,10,15,20,25,30", "--checkpoint",
+                checkpoint.toString()}).run(new PrintStream(new ByteArrayOutputStream()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        LottoCli.parse(new String[]{"--drawings", "2000", "--seed", "9", "--picks", "30,25,20,15,10,5",
+                "--checkpoint", checkpoint.toString()}).run(new PrintStream(bytes));
+        assertTrue(bytes.toString().contains("--seed is ignored"));
+        assertEquals(2000, Checkpoint.load(checkpoint).getDrawingCount());
+
+        try {
+            LottoCli.parse(new String[]{"--drawings", "3000", "--picks", "1,2,3,4,5,6", "--checkpoint",
+                    checkpoint.toString()}).run(new PrintStream(new ByteArrayOutputStream()));
+            fail("expected a picks mismatch");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("differ"));
+        }
+    }
+
+    @Test
+    public void testCli_resumeRejectsMissingJournal() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("nojournal.lckp");
+        LottoCli.parse(new String[]{"--drawings", "1000", "--checkpoint", checkpoint.toString()})
+                .run(new PrintStream(new ByteArrayOutputStream()));
+
+        Path journal = folder.getRoot().toPath().resolve("missing.ldrj");
+        try {
+            LottoCli.parse(new String[]{"--drawings", "2000", "--checkpoint", checkpoint.toString(),
+                    "--journal", journal.toString()}).run(new PrintStream(new ByteArrayOutputStream()));
+            fail("expected a missing journal");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not exist"));
+        }
+        assertFalse(Files.exists(journal));
+        assertEquals(1000, Checkpoint.load(checkpoint).getDrawingCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCli_checkpointNeedsCapturableGenerator() {
+        LottoCli.parse(new String[]{"--drawings", "10", "--rng", "L64X128MixRandom", "--checkpoint", "x.lckp"});
+    }
+
+    private static String[] concat(String[] first, String... rest) {
+        String[] all = new String[first.length + rest.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(rest, 0, all, first.length, rest.length);
+        return all;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CombinadicTest {
+
+    @Test
+    public void testSize_defaultGame() {
+        assertEquals(15890700L, Combinadic.DEFAULT.size());
+    }
+
+    @Test
+    public void testRank_firstAndLast() {
+        assertEquals(0, Combinadic.DEFAULT.rank(new int[]{1, 2, 3, 4, 5, 6}));
+        assertEquals(15890699, Combinadic.DEFAULT.rank(new int[]{45, 46, 47, 48, 49, 50}));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, Combinadic.DEFAULT.unrank(0));
+        assertArrayEquals(new int[]{45, 46, 47, 48, 49, 50}, Combinadic.DEFAULT.unrank(15890699));
+    }
+
+    @Test
+    public void testRank_orderOfNumbersIrrelevant() {
+        assertEquals(Combinadic.DEFAULT.rank(new int[]{7, 14, 21, 28, 35, 42}),
+                Combinadic.DEFAULT.rank(new int[]{42, 7, 35, 14, 28, 21}));
+    }
+
+    @Test
+    public void testRoundTrip_smallGameExhaustive() {
+        Combinadic small = new Combinadic(10, 4);
+        assertEquals(210, small.size());
+        long previous = -1;
+        for (int r = 0; r < small.size(); r++) {
+            long mask = small.unrankMask(r);
+            assertEquals(4, Long.bitCount(mask));
+            assertTrue(Long.numberOfTrailingZeros(mask) >= 1);
+            assertTrue(64 - Long.numberOfLeadingZeros(mask) - 1 <= 10);
+            assertNotEquals(previous, mask);
+            assertEquals(r, small.rank(mask));
+            previous = mask;
+        }
+    }
+
+    @Test
+    public void testRoundTrip_defaultGameSampled() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            int rank = random.nextInt((int) Combinadic.DEFAULT.size());
+            assertEquals(rank, Combinadic.DEFAULT.rank(Combinadic.DEFAULT.unrankMask(rank)));
+        }
+    }
+
+    @Test
+    public void testSampleMask_validTickets() {
+        Random random = new Random(2);
+        for (int i = 0; i < 10000; i++) {
+            long mask = Combinadic.DEFAULT.sampleMask(random);
+            assertEquals(6, Long.bitCount(mask));
+            assertEquals(0L, mask & ~(((1L << 51) - 1) & ~1L));
+        }
+    }
+
+    @Test
+    public void testSampleMask_uniformOverSmallGame() {
+        Combinadic small = new Combinadic(8, 3);
+        int[] histogram = new int[(int) small.size()];
+        Random random = new Random(3);
+        int draws = 560000;
+        for (int i = 0; i < draws; i++) {
+            histogram[small.rank(small.sampleMask(random))]++;
+        }
+        double expected = (double) draws / small.size();
+        for (int count : histogram) {
+            assertEquals(expected, count, 5 * Math.sqrt(expected));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnrank_outOfRange() {
+        Combinadic.DEFAULT.unrankMask(15890700);
+    }
+
+    @Test
+    public void testRank_rejectsMasksThatAreNotTickets() {
+        long valid = LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 50});
+        long[] invalid = {
+                valid | 1L,                        // bit 0 is not a number
+                valid & ~(1L << 50),               // five numbers
+                valid | 1L << 49,                  // seven numbers
+                (valid & ~(1L << 50)) | 1L << 51,  // 51 is out of range
+                0L
+        };
+        for (long mask : invalid) {
+            try {
+                Combinadic.DEFAULT.rank(mask);
+                fail("expected 0x" + Long.toHexString(mask) + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEquals(Combinadic.DEFAULT.size() - 1, Combinadic.DEFAULT.rank(LottoEngine.toMask(new int[]{45, 46, 47, 48, 49, 50})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRank_rejectsRepeatedNumbers() {
+        Combinadic.DEFAULT.rank(new int[]{1, 1, 2, 3, 4, 5});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rankTooLarge() {
+        new Combinadic(60, 20);
+    }
+}
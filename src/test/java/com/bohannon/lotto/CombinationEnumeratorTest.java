@@ -0,0 +1,118 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class CombinationEnumeratorTest {
+
+    private static final int[] PICKS = {4, 8, 15, 16, 23, 42};
+
+    @Test
+    public void testTierCounts_fullGameMatchesClosedForm() {
+        long[] counts = new CombinationEnumerator().tierCounts(PICKS);
+        long total = 0;
+        for (int m = 0; m <= LottoEngine.NUM_PICKS; m++) {
+            long expected = Combinatorics.binomial(LottoEngine.NUM_PICKS, m)
+                    * Combinatorics.binomial(LottoEngine.MAX_NUMBER - LottoEngine.NUM_PICKS, LottoEngine.NUM_PICKS - m);
+            assertEquals("matches " + m, expected, counts[m]);
+            total += counts[m];
+        }
+        assertEquals(15_890_700L, total);
+        assertEquals(1L, counts[6]);
+    }
+
+    @Test
+    public void testTierCounts_smallGameMatchesBruteForce() {
+        Combinadic game = new Combinadic(12, 4);
+        long ticket = LottoEngine.toMask(new int[]{1, 5, 9, 12});
+        long[] expected = new long[5];
+        for (int a = 1; a <= 12; a++) {
+            for (int b = a + 1; b <= 12; b++) {
+                for (int c = b + 1; c <= 12; c++) {
+                    for (int d = c + 1; d <= 12; d++) {
+                        long draw = (1L << a) | (1L << b) | (1L << c) | (1L << d);
+                        expected[Long.bitCount(draw & ticket)]++;
+                    }
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertArrayEquals(expected, new CombinationEnumerator(game, pool).tierCounts(ticket));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNextCombination_walksColexOrder() {
+        Combinadic game = new Combinadic(9, 3);
+        long mask = game.unrankMask(0) >>> 1;
+        for (int r = 0; r < game.size(); r++) {
+            assertEquals(game.unrankMask(r), mask << 1);
+            mask = CombinationEnumerator.nextCombination(mask);
+        }
+    }
+
+    @Test
+    public void testTierCounts_sameOnAnyPool() {
+        long ticket = LottoEngine.toMask(PICKS);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertArrayEquals(new CombinationEnumerator().tierCounts(ticket),
+                    new CombinationEnumerator(Combinadic.DEFAULT, single).tierCounts(ticket));
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void testBestTierCounts_wheelAndSingleTicket() {
+        TicketBook single = new TicketBook();
+        single.add(PICKS);
+        CombinationEnumerator enumerator = new CombinationEnumerator(new Combinadic(20, 6), ForkJoinPool.commonPool());
+        long[] one = enumerator.bestTierCounts(single);
+        assertArrayEquals(enumerator.tierCounts(PICKS), one);
+
+        TicketBook two = new TicketBook();
+        two.add(new int[]{1, 2, 3, 4, 5, 6});
+        two.add(new int[]{7, 8, 9, 10, 11, 12});
+        long[] best = enumerator.bestTierCounts(two);
+        // The only draws matching 6 are the two tickets themselves
+        assertEquals(2, best[6]);
+        long total = 0;
+        for (long count : best) {
+            total += count;
+        }
+        assertEquals(Combinatorics.binomial(20, 6), total);
+    }
+
+    @Test
+    public void testSimulation_convergesToExactDistribution() {
+        double[] exact = new CombinationEnumerator().tierProbabilities(LottoEngine.toMask(PICKS));
+        LottoEngine engine = new LottoEngine(new Random(23));
+        engine.setPicks(PICKS);
+
+        double previousError = Double.MAX_VALUE;
+        for (int drawings : new int[]{20_000, 2_000_000}) {
+            engine.reset();
+            engine.setPicks(PICKS);
+            engine.runDrawings(drawings);
+            long[] simulated = {0, 0, 0, engine.getMatchesOf3(), engine.getMatchesOf4()};
+            double error = 0.0;
+            for (int m = 3; m <= 4; m++) {
+                double expected = exact[m] * drawings;
+                double sigma = Math.sqrt(expected * (1 - exact[m]));
+                assertEquals("matches " + m + " of " + drawings, expected, simulated[m], 5 * sigma);
+                error = Math.max(error, Math.abs(simulated[m] / (double) drawings - exact[m]) / exact[m]);
+            }
+            assertTrue("relative error " + error + " after " + drawings, error < previousError);
+            previousError = error;
+        }
+        assertTrue(previousError < 0.05);
+    }
+}
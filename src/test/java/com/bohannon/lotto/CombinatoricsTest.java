@@ -0,0 +1,33 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CombinatoricsTest {
+
+    @Test
+    public void testBinomial_knownValues() {
+        assertEquals(15890700L, Combinatorics.binomial(50, 6));
+        assertEquals(13983816L, Combinatorics.binomial(49, 6));
+        assertEquals(1L, Combinatorics.binomial(50, 0));
+        assertEquals(50L, Combinatorics.binomial(50, 49));
+        assertEquals(0L, Combinatorics.binomial(5, 6));
+        assertEquals(0L, Combinatorics.binomial(5, -1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testBinomial_overflow() {
+        Combinatorics.binomial(100, 50);
+    }
+
+    @Test
+    public void testMatchProbability_sumsToOne() {
+        double total = 0.0;
+        for (int k = 0; k <= 6; k++) {
+            total += Combinatorics.matchProbability(50, 6, 6, k);
+        }
+        assertEquals(1.0, total, 1e-12);
+        assertEquals(1.0 / 15890700, Combinatorics.matchProbability(50, 6, 6, 6), 1e-20);
+    }
+}
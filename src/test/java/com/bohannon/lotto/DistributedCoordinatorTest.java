@@ -0,0 +1,189 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DistributedCoordinatorTest {
+
+    private static final int[] PICKS = {4, 8, 15, 16, 23, 42};
+
+    private static DistributedCoordinator loopback() throws Exception {
+        return new DistributedCoordinator(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    }
+
+    private static void awaitWorkers(DistributedCoordinator coordinator, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (coordinator.getWorkerCount() < count) {
+            assertTrue("workers did not connect", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A connection that completes the handshake and then does whatever the test scripts, or nothing.
+     */
+    private static Socket scriptedWorker(DistributedCoordinator coordinator) throws Exception {
+        Socket socket = new Socket("127.0.0.1", coordinator.getPort());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(DistributedCoordinator.MAGIC);
+        out.writeInt(DistributedCoordinator.VERSION);
+        out.flush();
+        return socket;
+    }
+
+    private static SimulationResult runWithWorkers(int workers, String algorithm) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (DistributedCoordinator coordinator = loopback()) {
+            List<Future<Long>> served = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                served.add(pool.submit(() -> new DistributedWorker("127.0.0.1", coordinator.getPort()).serve()));
+            }
+            awaitWorkers(coordinator, workers);
+            SimulationResult result = coordinator.run(300_000, PICKS, 11L, 7, algorithm);
+            coordinator.close();
+            long total = 0;
+            for (Future<Long> future : served) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(7, total);
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRun_matchesParallelSimulatorForAnyWorkerCount() throws Exception {
+        SimulationResult expected = new ParallelSimulator(7).run(300_000, PICKS, 11L);
+        assertEquals(expected, runWithWorkers(1, RandomStreams.LEGACY));
+        assertEquals(expected, runWithWorkers(3, RandomStreams.LEGACY));
+    }
+
+    @Test
+    public void testRun_splittableAlgorithm() throws Exception {
+        String algorithm = RandomStreams.DEFAULT_PARALLEL;
+        assertEquals(new ParallelSimulator(7, algorithm).run(300_000, PICKS, 11L), runWithWorkers(2, algorithm));
+    }
+
+    @Test
+    public void testRun_reassignsPartitionOfLostWorker() throws Exception {
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try (DistributedCoordinator coordinator = loopback()) {
+            // A worker that takes its first partition and dies without answering
+            Socket doomed = scriptedWorker(coordinator);
+            awaitWorkers(coordinator, 1);
+
+            Future<SimulationResult> run = pool.submit(() -> coordinator.run(100_000, PICKS, 5L, 4, RandomStreams.LEGACY));
+            assertEquals(DistributedCoordinator.ASSIGN, new DataInputStream(doomed.getInputStream()).readByte());
+            doomed.close();
+
+            pool.submit(() -> new DistributedWorker("127.0.0.1", coordinator.getPort()).serve());
+            assertEquals(new ParallelSimulator(4).run(100_000, PICKS, 5L), run.get(30, TimeUnit.SECONDS));
+            assertEquals(1, coordinator.getReassignments());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRun_workerFailureFailsRun() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try (DistributedCoordinator coordinator = loopback(); Socket worker = scriptedWorker(coordinator)) {
+            awaitWorkers(coordinator, 1);
+            Future<SimulationResult> run = pool.submit(() -> coordinator.run(1_000, PICKS, 1L, 2, RandomStreams.LEGACY));
+            assertEquals(DistributedCoordinator.ASSIGN, new DataInputStream(worker.getInputStream()).readByte());
+            DataOutputStream out = new DataOutputStream(worker.getOutputStream());
+            out.writeByte(DistributedCoordinator.FAILED);
+            out.writeUTF("out of memory");
+            out.flush();
+            try {
+                run.get(30, TimeUnit.SECONDS);
+                fail("expected the worker's failure");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("failed partition"));
+                assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("out of memory"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRun_rejectsAlgorithmThatCannotPartition() throws Exception {
+        try (DistributedCoordinator coordinator = loopback()) {
+            // Known to this JVM but neither splittable nor jumpable
+            coordinator.run(1_000, PICKS, 1L, 2, "SecureRandom");
+        }
+    }
+
+    @Test
+    public void testRun_partitionLostTooOftenFailsRun() throws Exception {
+        List<Socket> silent = new ArrayList<>();
+        try (DistributedCoordinator coordinator = new DistributedCoordinator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 200)) {
+            for (int i = 0; i < DistributedCoordinator.MAX_ATTEMPTS; i++) {
+                silent.add(scriptedWorker(coordinator));
+            }
+            awaitWorkers(coordinator, DistributedCoordinator.MAX_ATTEMPTS);
+            try {
+                coordinator.run(1_000, PICKS, 1L, 1, RandomStreams.LEGACY);
+                fail("expected the run to give up on the partition");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("lost " + DistributedCoordinator.MAX_ATTEMPTS + " times"));
+            }
+            assertEquals(DistributedCoordinator.MAX_ATTEMPTS - 1, coordinator.getReassignments());
+        } finally {
+            for (Socket socket : silent) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void testRun_workerProcessesOverLoopback() throws Exception {
+        List<Process> processes = new ArrayList<>();
+        try (DistributedCoordinator coordinator = loopback()) {
+            for (int i = 0; i < 2; i++) {
+                processes.add(new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"), LottoCli.class.getName(),
+                        "--worker", "127.0.0.1:" + coordinator.getPort())
+                        .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start());
+            }
+            awaitWorkers(coordinator, 2);
+            assertEquals(new ParallelSimulator(16).run(400_000, PICKS, 3L),
+                    coordinator.run(400_000, PICKS, 3L, 16, RandomStreams.LEGACY));
+            coordinator.close();
+            for (Process process : processes) {
+                assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+                assertEquals(0, process.exitValue());
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRun_rejectsBadPicks() throws Exception {
+        try (DistributedCoordinator coordinator = loopback()) {
+            coordinator.run(10, new int[]{1, 1, 2, 3, 4, 5}, 1L, 2, RandomStreams.LEGACY);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class DrawAnalyticsTest {
+
+    private static long[] draws(long seed, int n) {
+        LottoEngine engine = new LottoEngine(new Random(seed));
+        engine.setPicks(new int[]{1, 2, 3, 4, 5, 6});
+        long[] draws = new long[n];
+        engine.runDrawings(n, draws, 0);
+        return draws;
+    }
+
+    @Test
+    public void testCounts_matchBruteForce() {
+        long[] draws = draws(1, 20000);
+        DrawAnalytics analytics = new DrawAnalytics();
+        analytics.newShard().accept(draws, 0, draws.length);
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+
+        long[] numbers = new long[51];
+        long[][] pairs = new long[51][51];
+        for (long draw : draws) {
+            int[] n = LottoEngine.fromMask(draw);
+            for (int i = 0; i < n.length; i++) {
+                numbers[n[i]]++;
+                for (int j = i + 1; j < n.length; j++) {
+                    pairs[n[i]][n[j]]++;
+                }
+            }
+        }
+        assertEquals(20000, snapshot.getDrawCount());
+        for (int a = 1; a <= 50; a++) {
+            assertEquals("number " + a, numbers[a], snapshot.getNumberCount(a));
+            for (int b = a + 1; b <= 50; b++) {
+                assertEquals(a + "+" + b, pairs[a][b], snapshot.getPairCount(a, b));
+                assertEquals(pairs[a][b], snapshot.getPairCount(b, a));
+            }
+        }
+
+        long triple = 0;
+        long mask = (1L << 7) | (1L << 19) | (1L << 33);
+        for (long draw : draws) {
+            if ((draw & mask) == mask) {
+                triple++;
+            }
+        }
+        assertEquals(triple, snapshot.getTripleCount(33, 7, 19));
+    }
+
+    @Test
+    public void testGaps() {
+        DrawAnalytics analytics = new DrawAnalytics();
+        DrawAnalytics.Shard shard = analytics.newShard();
+        long a = LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6});
+        long b = LottoEngine.toMask(new int[]{7, 8, 9, 10, 11, 12});
+        shard.accept(new long[]{a, b, b, b, a, b}, 0, 6);
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+
+        assertEquals(1, snapshot.getCurrentGap(1));
+        assertEquals(3, snapshot.getMaxGap(1));
+        assertEquals(0, snapshot.getCurrentGap(7));
+        assertEquals(1, snapshot.getMaxGap(7));
+        assertEquals(6, snapshot.getCurrentGap(50));
+        assertEquals(6, snapshot.getMaxGap(50));
+        assertEquals(13, snapshot.mostOverdue(1)[0]); // never drawn; ties go to the lower number
+        assertEquals(7, snapshot.mostFrequent(1)[0]);
+        assertEquals(44.0 / 6, AnalyticsSnapshot.getExpectedGap(), 1e-12);
+    }
+
+    @Test
+    public void testAccept_rejectsMasksThatAreNotDraws() {
+        DrawAnalytics analytics = new DrawAnalytics();
+        DrawAnalytics.Shard shard = analytics.newShard();
+        long good = LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6});
+        long[] bad = {
+                LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6, 7}),
+                LottoEngine.toMask(new int[]{1, 2, 3, 4, 5}),
+                good ^ (1L << 6) | 1L,
+                good ^ (1L << 6) | (1L << 51)
+        };
+        for (long mask : bad) {
+            try {
+                shard.accept(mask);
+                fail("accepted " + Long.toHexString(mask));
+            } catch (IllegalArgumentException expected) {
+                // refused
+            }
+            try {
+                shard.accept(new long[]{good, mask}, 0, 2);
+                fail("accepted a batch with " + Long.toHexString(mask));
+            } catch (IllegalArgumentException expected) {
+                // refused as a whole
+            }
+        }
+        assertEquals(0, analytics.snapshot().getDrawCount());
+    }
+
+    @Test
+    public void testShards_mergeLikeOneStream() {
+        long[] draws = draws(2, 9000);
+        DrawAnalytics single = new DrawAnalytics();
+        single.newShard().accept(draws, 0, draws.length);
+        DrawAnalytics sharded = new DrawAnalytics();
+        sharded.newShard().accept(draws, 0, 4000);
+        sharded.newShard().accept(draws, 4000, draws.length);
+
+        AnalyticsSnapshot expected = single.snapshot();
+        AnalyticsSnapshot actual = sharded.snapshot();
+        assertEquals(expected.getDrawCount(), actual.getDrawCount());
+        for (int n = 1; n <= 50; n++) {
+            assertEquals(expected.getNumberCount(n), actual.getNumberCount(n));
+            assertEquals(expected.getPairCount(n, n % 50 + 1), actual.getPairCount(n, n % 50 + 1));
+        }
+        List<int[]> pairs = expected.mostFrequentPairs(3);
+        assertEquals(3, pairs.size());
+        assertTrue(pairs.get(0)[0] < pairs.get(0)[1]);
+
+        sharded.reset();
+        assertEquals(0, sharded.snapshot().getDrawCount());
+        assertEquals(0, sharded.snapshot().getCurrentGap(1));
+    }
+
+    @Test
+    public void testSnapshot_whileWriting_isConsistent() throws InterruptedException {
+        final DrawAnalytics analytics = new DrawAnalytics();
+        final DrawAnalytics.Shard shard = analytics.newShard();
+        final long[] batch = draws(3, 1000);
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                shard.accept(batch, 0, batch.length);
+            }
+            done.set(true);
+        });
+        writer.start();
+        do {
+            AnalyticsSnapshot snapshot = analytics.snapshot();
+            assertEquals(0, snapshot.getDrawCount() % batch.length);
+            long total = 0;
+            for (int n = 1; n <= 50; n++) {
+                total += snapshot.getNumberCount(n);
+            }
+            assertEquals(snapshot.getDrawCount() * LottoEngine.NUM_PICKS, total);
+        } while (!done.get());
+        writer.join();
+        assertEquals(200L * batch.length, analytics.snapshot().getDrawCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTripleCount_rejectsRepeatedNumber() {
+        new DrawAnalytics().snapshot().getTripleCount(3, 3, 4);
+    }
+
+    @Test
+    public void testParallelSimulator_feedsEveryDraw() throws InterruptedException {
+        DrawAnalytics analytics = new DrawAnalytics();
+        SimulationResult result = new ParallelSimulator(2).run(50000, new int[]{1, 2, 3, 4, 5, 6}, 9L,
+                null, null, analytics);
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+        assertEquals(result.getDrawingCount(), snapshot.getDrawCount());
+        long ones = 0;
+        for (int n = 1; n <= 6; n++) {
+            ones += snapshot.getNumberCount(n);
+        }
+        assertTrue(ones > 0);
+    }
+}
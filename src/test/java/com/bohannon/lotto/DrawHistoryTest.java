@@ -0,0 +1,181 @@
+package com.bohannon.lotto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DrawHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String name, String text) throws IOException {
+        Path path = folder.newFile(name).toPath();
+        Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+        return path;
+    }
+
+    /**
+     * A history file in a typical published layout: draw number, date, six numbers, bonus.
+     */
+    private Path writeHistory(String name, long[] draws) throws IOException {
+        StringBuilder csv = new StringBuilder("Draw,Date,N1,N2,N3,N4,N5,N6,Bonus\r\n");
+        for (int i = 0; i < draws.length; i++) {
+            csv.append(i + 1).append(",2020-01-0").append(i % 9 + 1);
+            for (int n : LottoEngine.fromMask(draws[i])) {
+                csv.append(",").append(n);
+            }
+            csv.append(",").append(i % 50 + 1).append("\r\n");
+        }
+        return write(name, csv.toString());
+    }
+
+    private static long[] simulate(LottoEngine engine, int drawings) {
+        long[] draws = new long[drawings];
+        engine.runDrawings(drawings, draws, 0);
+        return draws;
+    }
+
+    @Test
+    public void testLoad_findsNumberColumns() throws IOException {
+        Path path = write("draws.csv", "date;numbers\n"
+                + "2021-03-06; 1; 2; 3; 4; 5; 6\n"
+                + "\n"
+                + "\"2021-03-13\",\"07\",\"19\",\"33\",\"41\",\"45\",\"50\",\"12\"\n"
+                + "12,3,3,9,18,27,36,49\n"
+                + "not,a,draw\n"
+                + "2021-03-27\t10\t20\t30\t40\t50\t60");
+        DrawHistory history = DrawHistory.load(path);
+
+        assertEquals(3, history.size());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, history.getNumbers(0));
+        assertArrayEquals(new int[]{7, 19, 33, 41, 45, 50}, history.getNumbers(1));
+        assertArrayEquals(new int[]{3, 9, 18, 27, 36, 49}, history.getNumbers(2));
+        assertEquals(3, history.getSkippedLines());
+    }
+
+    @Test
+    public void testLoad_leadingDrawNumberColumn() throws IOException {
+        Path path = write("numbered.csv", "Draw,N1,N2,N3,N4,N5,N6\n"
+                + "12,3,9,18,27,36,49\n"
+                + "17,3,17,22,31,40,45\n");
+        DrawHistory history = DrawHistory.load(path);
+        assertEquals(2, history.size());
+        assertArrayEquals(new int[]{3, 9, 18, 27, 36, 49}, history.getNumbers(0));
+        assertArrayEquals(new int[]{3, 17, 22, 31, 40, 45}, history.getNumbers(1));
+        assertEquals(1, history.getSkippedLines());
+
+        // Draw numbers counting up from 1 stay in range for the first 50 rows
+        long[] draws = simulate(new LottoEngine(new Random(14)), 3000);
+        StringBuilder csv = new StringBuilder("Draw,N1,N2,N3,N4,N5,N6\n");
+        for (int i = 0; i < draws.length; i++) {
+            csv.append(i + 1);
+            for (int n : LottoEngine.fromMask(draws[i])) {
+                csv.append(',').append(n);
+            }
+            csv.append('\n');
+        }
+        Path numbered = write("numbered-long.csv", csv.toString());
+        for (int threads : new int[]{1, 3}) {
+            DrawHistory loaded = DrawHistory.load(numbered, threads);
+            assertEquals(draws.length, loaded.size());
+            for (int i = 0; i < draws.length; i++) {
+                assertEquals(draws[i], loaded.getDraw(i));
+            }
+        }
+    }
+
+    @Test
+    public void testFirstWindow_restartsAfterRepeat() {
+        int[] fields = {3, 9, 12, 9, 18, 27, 36, 40};
+        assertEquals(LottoEngine.toMask(new int[]{12, 9, 18, 27, 36, 40}), DrawHistory.firstWindow(fields, fields.length));
+        int[] repeat = {5, 1, 2, 5, 3, 4, 6};
+        assertEquals(LottoEngine.toMask(new int[]{1, 2, 5, 3, 4, 6}), DrawHistory.firstWindow(repeat, repeat.length));
+        int[] none = {1, 2, 3, 0, 4, 5, 6, 7, 8};
+        assertEquals(0L, DrawHistory.firstWindow(none, 5));
+    }
+
+    @Test
+    public void testLoad_explicitColumn() throws IOException {
+        Path path = write("columns.csv", "1,2,3,4,5,6,7\n8,1,2,3,4,5,6\n9,1,2,3,4,5,99\n");
+        DrawHistory history = DrawHistory.load(path, 1, 1);
+        assertEquals(2, history.size());
+        assertArrayEquals(new int[]{2, 3, 4, 5, 6, 7}, history.getNumbers(0));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, history.getNumbers(1));
+        assertEquals(1, history.getSkippedLines());
+    }
+
+    @Test
+    public void testBacktest_matchesTheRunThatProducedTheDraws() throws IOException {
+        int[] picks = {4, 8, 15, 16, 23, 42};
+        LottoEngine engine = new LottoEngine(new Random(11));
+        engine.setPicks(picks);
+        Path path = writeHistory("history.csv", simulate(engine, 30000));
+
+        SimulationResult backtest = DrawHistory.load(path).backtest(picks);
+        assertEquals(SimulationResult.of(engine), backtest);
+
+        LottoEngine replayed = new LottoEngine();
+        replayed.setPicks(picks);
+        DrawHistory.load(path).replay(replayed);
+        assertEquals(engine.getMatchesOf3(), replayed.getMatchesOf3());
+        assertEquals(engine.getWinnersMask(), replayed.getWinnersMask());
+
+        long[] tiers = new long[LottoEngine.NUM_PICKS + 1];
+        DrawHistory.load(path).score(LottoEngine.toMask(picks), tiers);
+        assertEquals(engine.getMatchesOf4(), tiers[4]);
+    }
+
+    @Test
+    public void testParallelLoad_sameDrawsInFileOrder() throws IOException {
+        long[] draws = simulate(new LottoEngine(new Random(12)), 50000);
+        Path path = writeHistory("parallel.csv", draws);
+
+        DrawHistory serial = DrawHistory.load(path);
+        for (int threads : new int[]{2, 3, 7}) {
+            DrawHistory parallel = DrawHistory.load(path, threads);
+            assertEquals(draws.length, parallel.size());
+            assertEquals(1, parallel.getSkippedLines());
+            for (int i = 0; i < draws.length; i++) {
+                assertEquals(draws[i], parallel.getDraw(i));
+                assertEquals(serial.getDraw(i), parallel.getDraw(i));
+            }
+        }
+    }
+
+    @Test
+    public void testLoad_moreChunksThanLines() throws IOException {
+        Path path = write("tiny.csv", "1,2,3,4,5,6\n");
+        assertEquals(1, DrawHistory.load(path, 8).size());
+        assertEquals(0, DrawHistory.load(write("empty.csv", ""), 4).size());
+    }
+
+    @Test
+    public void testCli_backtest() throws Exception {
+        int[] picks = {7, 14, 21, 28, 35, 42};
+        LottoEngine engine = new LottoEngine(new Random(13));
+        engine.setPicks(picks);
+        Path path = writeHistory("cli.csv", simulate(engine, 5000));
+
+        LottoCli cli = LottoCli.parse(new String[]{"--backtest", path.toString(), "--picks", "7,14,21,28,35,42",
+                "--threads", "2"});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals(SimulationResult.of(engine), cli.run(new PrintStream(bytes)));
+        assertTrue(bytes.toString().contains("History:   5000 draws"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCli_backtestRejectsDrawingCount() {
+        LottoCli.parse(new String[]{"--backtest", "history.csv", "--drawings", "10"});
+    }
+}
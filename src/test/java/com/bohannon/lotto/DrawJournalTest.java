@@ -0,0 +1,200 @@
+package com.bohannon.lotto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DrawJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long[] recordRun(LottoEngine engine, int drawings) {
+        long[] draws = new long[drawings];
+        assertEquals(drawings, engine.runDrawings(drawings, draws, 0));
+        return draws;
+    }
+
+    private static LottoEngine engineWithPicks(long seed, int[] picks) {
+        LottoEngine engine = new LottoEngine(new Random(seed));
+        engine.setPicks(picks);
+        return engine;
+    }
+
+    private void assertRoundTrip(DrawJournal.Encoding encoding) throws IOException {
+        LottoEngine engine = new LottoEngine(new Random(5));
+        engine.generateQuickPick();
+        long[] draws = recordRun(engine, 5000);
+        Path path = folder.newFile("draws-" + encoding + ".ldrj").toPath();
+        try (DrawJournal.Writer writer = DrawJournal.create(path, encoding)) {
+            writer.append(draws, 0, draws.length);
+            assertEquals(5000, writer.getCount());
+        }
+
+        assertEquals(DrawJournal.HEADER_BYTES + 5000L * encoding.recordBytes, Files.size(path));
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            assertEquals(encoding, journal.getEncoding());
+            assertEquals(5000, journal.size());
+            long[] read = new long[draws.length + 10];
+            assertEquals(5000, journal.read(0, read));
+            for (int i = 0; i < draws.length; i++) {
+                assertEquals(draws[i], read[i]);
+            }
+            assertEquals(0, journal.read(5000, read));
+        }
+    }
+
+    @Test
+    public void testRoundTrip_mask() throws IOException {
+        assertRoundTrip(DrawJournal.Encoding.MASK);
+    }
+
+    @Test
+    public void testRoundTrip_rank() throws IOException {
+        assertRoundTrip(DrawJournal.Encoding.RANK);
+    }
+
+    @Test
+    public void testRead_spansSeveralBufferFills() throws IOException {
+        int drawings = 3 * DrawJournal.BUFFER_BYTES / Long.BYTES + 7;
+        long[] draws = recordRun(engineWithPicks(2, new int[]{1, 2, 3, 4, 5, 6}), drawings);
+        Path path = folder.newFile("large.ldrj").toPath();
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.MASK)) {
+            writer.append(draws, 0, drawings);
+        }
+
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            long[] read = new long[drawings];
+            assertEquals(drawings - 5, journal.read(5, read));
+            assertArrayEquals(Arrays.copyOfRange(draws, 5, drawings), Arrays.copyOf(read, drawings - 5));
+            assertEquals(2, journal.read(drawings - 2, read));
+            assertEquals(draws[drawings - 1], read[1]);
+        }
+    }
+
+    @Test
+    public void testReplay_reproducesTallies() throws IOException {
+        int[] picks = {3, 9, 17, 22, 38, 41};
+        LottoEngine original = engineWithPicks(11, picks);
+        long[] draws = recordRun(original, 200000);
+        Path path = folder.newFile("replay.ldrj").toPath();
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.RANK)) {
+            writer.append(draws, 0, draws.length);
+        }
+
+        LottoEngine replayed = engineWithPicks(999, picks);
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            assertEquals(200000, journal.replay(replayed));
+        }
+        assertEquals(SimulationResult.of(original), SimulationResult.of(replayed));
+        assertEquals(original.getWinnersMask(), replayed.getWinnersMask());
+        assertArrayEquals(LottoEngine.fromMask(original.getWinnersMask()), replayed.getWinners());
+    }
+
+    @Test
+    public void testScore_otherTicketAgainstRecordedDraws() throws IOException {
+        LottoEngine engine = new LottoEngine(new Random(12));
+        engine.generateQuickPick();
+        long[] draws = recordRun(engine, 300000);
+        Path path = folder.newFile("score.ldrj").toPath();
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.MASK)) {
+            writer.append(draws, 0, draws.length);
+        }
+
+        long ticket = LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6});
+        long[] expected = new long[LottoEngine.NUM_PICKS + 1];
+        for (long draw : draws) {
+            expected[LottoEngine.countMatches(ticket, draw)]++;
+        }
+        long[] tiers = new long[LottoEngine.NUM_PICKS + 1];
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            journal.score(ticket, tiers);
+        }
+        assertArrayEquals(expected, tiers);
+    }
+
+    @Test
+    public void testAppend_continuesExistingJournal() throws IOException {
+        Path path = folder.newFile("append.ldrj").toPath();
+        long first = LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6});
+        long second = LottoEngine.toMask(new int[]{45, 46, 47, 48, 49, 50});
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.RANK)) {
+            writer.append(first);
+        }
+        try (DrawJournal.Writer writer = DrawJournal.append(path)) {
+            assertEquals(DrawJournal.Encoding.RANK, writer.getEncoding());
+            writer.append(second);
+        }
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            long[] read = new long[4];
+            assertEquals(2, journal.read(0, read));
+            assertEquals(first, read[0]);
+            assertEquals(second, read[1]);
+        }
+    }
+
+    @Test
+    public void testSync_recordsOnDiskBeforeClose() throws IOException {
+        Path path = folder.newFile("sync.ldrj").toPath();
+        long draw = LottoEngine.toMask(new int[]{5, 10, 15, 20, 25, 30});
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.MASK)) {
+            writer.append(draw);
+            writer.sync();
+            try (DrawJournal journal = DrawJournal.open(path)) {
+                assertEquals(1, journal.size());
+            }
+        }
+    }
+
+    @Test
+    public void testOpen_ignoresTornTrailingRecord() throws IOException {
+        Path path = folder.newFile("torn.ldrj").toPath();
+        long draw = LottoEngine.toMask(new int[]{7, 14, 21, 28, 35, 42});
+        try (DrawJournal.Writer writer = DrawJournal.create(path, DrawJournal.Encoding.MASK)) {
+            writer.append(draw);
+        }
+        Files.write(path, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            assertEquals(1, journal.size());
+        }
+        try (DrawJournal.Writer writer = DrawJournal.append(path)) {
+            writer.append(draw);
+        }
+        assertEquals(DrawJournal.HEADER_BYTES + 2L * 8, Files.size(path));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_rejectsForeignFile() throws IOException {
+        Path path = folder.newFile("foreign.bin").toPath();
+        Files.write(path, new byte[32]);
+        DrawJournal.open(path);
+    }
+
+    @Test
+    public void testCli_journalRecordsEveryDrawing() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("cli.ldrj");
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "100000", "--seed", "6",
+                "--picks", "7,14,21,28,35,42", "--journal", path.toString()});
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+
+        LottoEngine replayed = new LottoEngine();
+        replayed.setPicks(new int[]{7, 14, 21, 28, 35, 42});
+        try (DrawJournal journal = DrawJournal.open(path)) {
+            assertEquals(result.getDrawingCount(), journal.size());
+            journal.replay(replayed);
+        }
+        assertEquals(result, SimulationResult.of(replayed));
+    }
+}
@@ -0,0 +1,128 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FastForwardEngineTest {
+
+    private static final int[] PICKS = {7, 14, 21, 28, 35, 42};
+
+    private static void assertNearExpected(String tier, long observed, long drawings, double p) {
+        double mean = drawings * p;
+        double sd = Math.sqrt(drawings * p * (1 - p));
+        assertTrue(tier + ": observed " + observed + ", expected " + mean + " +/- " + sd,
+                Math.abs(observed - mean) < 5 * sd + 1);
+    }
+
+    @Test
+    public void testRunDrawings_advancesExactCount() {
+        FastForwardEngine engine = new FastForwardEngine(new Random(1));
+        engine.setPicks(PICKS);
+        long done = 0;
+        for (int i = 0; i < 1000 && !engine.isJackpotHit(); i++) {
+            done += engine.runDrawings(777);
+        }
+        assertEquals(done, engine.getDrawingCount());
+    }
+
+    @Test
+    public void testRunDrawings_talliesMatchTheoreticalRates() {
+        FastForwardEngine engine = new FastForwardEngine(new Random(2));
+        engine.setPicks(PICKS);
+        long drawings = 0;
+        long target = 200000000L;
+        while (drawings < target) {
+            drawings += engine.runDrawings(target - drawings);
+        }
+        assertNearExpected("3", engine.getMatchesOf3(), target, FastForwardEngine.probability(3));
+        assertNearExpected("4", engine.getMatchesOf4(), target, FastForwardEngine.probability(4));
+        assertNearExpected("5", engine.getMatchesOf5(), target, FastForwardEngine.probability(5));
+        assertNearExpected("6", engine.getMatchesOf6(), target, FastForwardEngine.probability(6));
+    }
+
+    @Test
+    public void testRunDrawings_agreesWithFullSimulation() {
+        long drawings = 1000000;
+
+        LottoEngine full = new LottoEngine(new Random(3));
+        full.setPicks(PICKS);
+        while (full.getDrawingCount() < drawings) {
+            full.runDrawings((int) (drawings - full.getDrawingCount()));
+        }
+
+        assertNearExpected("full 3", full.getMatchesOf3(), drawings, FastForwardEngine.probability(3));
+        assertNearExpected("full 4", full.getMatchesOf4(), drawings, FastForwardEngine.probability(4));
+
+        FastForwardEngine fast = new FastForwardEngine(new Random(3));
+        fast.setPicks(PICKS);
+        while (fast.getDrawingCount() < drawings) {
+            fast.runDrawings(drawings - fast.getDrawingCount());
+        }
+        assertNearExpected("fast 3", fast.getMatchesOf3(), drawings, FastForwardEngine.probability(3));
+        assertNearExpected("fast 4", fast.getMatchesOf4(), drawings, FastForwardEngine.probability(4));
+    }
+
+    @Test
+    public void testWinners_shareExactlyTheRecordedMatches() {
+        FastForwardEngine engine = new FastForwardEngine(new Random(4));
+        engine.setPicks(PICKS);
+        long picksMask = LottoEngine.toMask(PICKS);
+        for (int i = 0; i < 1000; i++) {
+            long before3 = engine.getMatchesOf3();
+            long before4 = engine.getMatchesOf4();
+            // Advance to just past the next interesting drawing
+            long beforeTotal = before3 + before4 + engine.getMatchesOf5() + engine.getMatchesOf6();
+            while (engine.getMatchesOf3() + engine.getMatchesOf4() + engine.getMatchesOf5()
+                    + engine.getMatchesOf6() == beforeTotal) {
+                engine.runDrawings(1);
+            }
+            long winnersMask = LottoEngine.toMask(engine.getWinners());
+            assertEquals(6, Long.bitCount(winnersMask));
+            int matches = LottoEngine.countMatches(picksMask, winnersMask);
+            assertTrue(matches >= 3);
+            if (engine.getMatchesOf3() > before3) {
+                assertEquals(3, matches);
+            } else if (engine.getMatchesOf4() > before4) {
+                assertEquals(4, matches);
+            }
+        }
+    }
+
+    @Test
+    public void testRunUntilJackpot_stopsOnJackpot() {
+        FastForwardEngine engine = new FastForwardEngine(new Random(5));
+        engine.setPicks(PICKS);
+        long drawings = engine.runUntilJackpot();
+        assertTrue(engine.isJackpotHit());
+        assertEquals(1, engine.getMatchesOf6());
+        assertEquals(drawings, engine.getDrawingCount());
+    }
+
+    @Test
+    public void testReset_clearsState() {
+        FastForwardEngine engine = new FastForwardEngine(new Random(6));
+        engine.setPicks(PICKS);
+        engine.runDrawings(100000);
+        engine.reset();
+        assertEquals(SimulationResult.EMPTY, engine.getResult());
+        assertFalse(engine.isJackpotHit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetPicks_rejectsDuplicates() {
+        new FastForwardEngine().setPicks(new int[]{1, 1, 2, 3, 4, 5});
+    }
+
+    @Test
+    public void testProbability_prizeDrawsAboutOneIn57() {
+        double interesting = 0.0;
+        for (int k = 3; k <= LottoEngine.NUM_PICKS; k++) {
+            interesting += FastForwardEngine.probability(k);
+        }
+        assertEquals(279_335.0 / 15_890_700.0, interesting, 1e-15);
+        assertEquals(57, Math.round(1 / interesting));
+    }
+}
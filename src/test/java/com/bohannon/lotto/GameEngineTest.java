@@ -0,0 +1,164 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GameEngineTest {
+
+    private static final GameSpec SIX_OF_90 = new GameSpec("6 of 90", 6, 90, 0, 104, Arrays.asList(
+            new PrizeTier("6", 6, false, 0),
+            new PrizeTier("3", 3, false, 1)));
+
+    // ---- GameSpec ----
+
+    @Test
+    public void testTierFor_bonusTierTakesPrecedence() {
+        GameSpec spec = GameSpec.POWERBALL;
+        assertEquals("5 + bonus", spec.getTiers().get(spec.tierFor(5, true)).getName());
+        assertEquals("5", spec.getTiers().get(spec.tierFor(5, false)).getName());
+        assertEquals("3 + bonus", spec.getTiers().get(spec.tierFor(3, true)).getName());
+        assertEquals("0 + bonus", spec.getTiers().get(spec.tierFor(0, true)).getName());
+        assertEquals(-1, spec.tierFor(2, false));
+        assertEquals(spec.tierFor(5, true), spec.getJackpotTier());
+    }
+
+    @Test
+    public void testTierFor_bonusFallsBackToPlainTier() {
+        GameSpec spec = new GameSpec("test", 6, 49, 10, 104, Arrays.asList(new PrizeTier("3", 3, false, 5)));
+        assertEquals(0, spec.tierFor(3, true));
+        assertEquals(0, spec.tierFor(3, false));
+        assertEquals(-1, spec.getJackpotTier());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpec_rejectsBonusTierWithoutBonusBall() {
+        new GameSpec("bad", 6, 49, 0, 104, Collections.singletonList(new PrizeTier("6+b", 6, true, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpec_rejectsImpossibleMatrix() {
+        new GameSpec("bad", 7, 6, 0, 104, Collections.<PrizeTier>emptyList());
+    }
+
+    @Test
+    public void testFitsInMask_selectsKernel() {
+        assertTrue(GameKernel.forSpec(GameSpec.DEFAULT) instanceof GameKernel.MaskKernel);
+        assertTrue(GameKernel.forSpec(GameSpec.LOTTO_7_OF_35) instanceof GameKernel.MaskKernel);
+        assertTrue(GameKernel.forSpec(GameSpec.POWERBALL) instanceof GameKernel.BitSetKernel);
+        assertTrue(GameKernel.forSpec(SIX_OF_90) instanceof GameKernel.BitSetKernel);
+    }
+
+    // ---- GameEngine ----
+
+    @Test
+    public void testDefaultGame_sameResultsAsLottoEngine() {
+        int[] picks = {7, 14, 21, 28, 35, 42};
+        LottoEngine lotto = new LottoEngine(new Random(42));
+        lotto.setPicks(picks);
+        GameEngine game = new GameEngine(GameSpec.DEFAULT, new Random(42));
+        game.setPicks(picks);
+
+        for (int i = 0; i < 20000; i++) {
+            lotto.runOneDrawing();
+            game.runOneDrawing();
+        }
+        assertArrayEquals(lotto.getWinners(), game.getWinners());
+        assertEquals(lotto.getMatchesOf6(), game.getTierCount(0));
+        assertEquals(lotto.getMatchesOf5(), game.getTierCount(1));
+        assertEquals(lotto.getMatchesOf4(), game.getTierCount(2));
+        assertEquals(lotto.getMatchesOf3(), game.getTierCount(3));
+        assertEquals(lotto.getDrawingCount(), game.getDrawingCount());
+    }
+
+    @Test
+    public void testBitSetKernel_drawsValidTickets() {
+        GameEngine engine = new GameEngine(GameSpec.POWERBALL, new Random(1));
+        engine.setPicks(new int[]{1, 2, 3, 4, 5}, 6);
+        for (int i = 0; i < 1000; i++) {
+            engine.runOneDrawing();
+            Set<Integer> unique = new HashSet<>();
+            for (int n : engine.getWinners()) {
+                assertTrue(n >= 1 && n <= 69);
+                assertTrue(unique.add(n));
+            }
+            assertTrue(engine.getWinningBonus() >= 1 && engine.getWinningBonus() <= 26);
+        }
+    }
+
+    @Test
+    public void testBitSetKernel_tierRatesMatchTheory() {
+        GameEngine engine = new GameEngine(SIX_OF_90, new Random(2));
+        engine.setPicks(new int[]{10, 20, 30, 40, 70, 90});
+        int drawings = 500000;
+        engine.runDrawings(drawings);
+        double p3 = Combinatorics.matchProbability(90, 6, 6, 3);
+        double mean = drawings * p3;
+        double sd = Math.sqrt(mean * (1 - p3));
+        assertEquals(mean, engine.getTierCount(1), 5 * sd);
+        assertEquals(engine.getTierCount(1), engine.getTotalPrize());
+    }
+
+    @Test
+    public void testPowerball_bonusTierRate() {
+        GameEngine engine = new GameEngine(GameSpec.POWERBALL, new Random(3));
+        engine.setPicks(new int[]{11, 22, 33, 44, 55}, 13);
+        int drawings = 1000000;
+        engine.runDrawings(drawings);
+        // 0 + bonus: no main matches and the bonus ball hits
+        double p = Combinatorics.matchProbability(69, 5, 5, 0) / 26;
+        double mean = drawings * p;
+        int tier = GameSpec.POWERBALL.tierFor(0, true);
+        assertEquals(mean, engine.getTierCount(tier), 5 * Math.sqrt(mean));
+    }
+
+    @Test
+    public void testRunDrawings_stopsAfterJackpot() {
+        GameEngine probe = new GameEngine(GameSpec.LOTTO_7_OF_35, new Random(9));
+        probe.runOneDrawing();
+        probe.runOneDrawing();
+        int[] second = probe.getWinners().clone();
+
+        GameEngine engine = new GameEngine(GameSpec.LOTTO_7_OF_35, new Random(9));
+        engine.setPicks(second);
+        assertEquals(2, engine.runDrawings(100));
+        assertTrue(engine.isJackpotHit());
+    }
+
+    @Test
+    public void testGenerateQuickPick_validTicket() {
+        GameEngine engine = new GameEngine(GameSpec.POWERBALL, new Random(4));
+        engine.generateQuickPick();
+        assertEquals(5, engine.getPicks().length);
+        assertTrue(engine.getBonusPick() >= 1 && engine.getBonusPick() <= 26);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetPicks_requiresBonusForBonusGame() {
+        new GameEngine(GameSpec.POWERBALL).setPicks(new int[]{1, 2, 3, 4, 5});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetPicks_rejectsOutOfRange() {
+        new GameEngine(GameSpec.LOTTO_6_OF_49).setPicks(new int[]{1, 2, 3, 4, 5, 50});
+    }
+
+    @Test
+    public void testReset_clearsTallies() {
+        GameEngine engine = new GameEngine(GameSpec.LOTTO_6_OF_49, new Random(5));
+        engine.setPicks(new int[]{1, 2, 3, 4, 5, 6});
+        engine.runDrawings(10000);
+        engine.reset();
+        assertEquals(0, engine.getDrawingCount());
+        for (int t = 0; t < GameSpec.LOTTO_6_OF_49.getTiers().size(); t++) {
+            assertEquals(0, engine.getTierCount(t));
+        }
+        assertEquals(0, engine.getTotalPrize());
+    }
+}
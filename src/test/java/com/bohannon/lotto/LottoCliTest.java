@@ -0,0 +1,128 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class LottoCliTest {
+
+    @Test
+    public void testParsePicks_valid() {
+        assertArrayEquals(new int[]{7, 14, 21, 28, 35, 42}, LottoCli.parsePicks("7,14, 21,28,35,42"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParsePicks_duplicate() {
+        LottoCli.parsePicks("1,1,2,3,4,5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParsePicks_outOfRange() {
+        LottoCli.parsePicks("1,2,3,4,5,51");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_unknownArgument() {
+        LottoCli.parse(new String[]{"--bogus"});
+    }
+
+    @Test
+    public void testRun_fixedDrawings() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "200000", "--seed", "42", "--picks", "7,14,21,28,35,42"});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimulationResult result = cli.run(new PrintStream(bytes));
+        assertEquals(200000L, result.getDrawingCount());
+        assertTrue(result.getMatchesOf3() > 0);
+        assertTrue(bytes.toString().contains("Drawings:  200000"));
+    }
+
+    @Test
+    public void testRun_analytics() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "50000", "--seed", "5", "--analytics"});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        cli.run(new PrintStream(bytes));
+        String report = bytes.toString();
+        assertTrue(report.contains("Frequent: "));
+        assertTrue(report.contains("Overdue:  "));
+        assertTrue(report.contains("Pairs:    "));
+    }
+
+    @Test
+    public void testRun_years() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--years", "10", "--seed", "1"});
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(10L * LottoEngine.DRAWINGS_PER_YEAR, result.getDrawingCount());
+        assertEquals(10.0, result.getYears(), 0.001);
+    }
+
+    @Test
+    public void testRun_untilJackpot() throws Exception {
+        LottoEngine probe = new LottoEngine(new java.util.Random(3));
+        probe.generateNumbers();
+        probe.generateNumbers();
+        String picks = LottoCli.join(probe.generateNumbers());
+
+        LottoCli cli = LottoCli.parse(new String[]{"--until-jackpot", "--seed", "3", "--picks", picks});
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(1L, result.getMatchesOf6());
+        assertEquals(3L, result.getDrawingCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_threadsNeedFixedCount() {
+        LottoCli.parse(new String[]{"--threads", "4"});
+    }
+
+    @Test
+    public void testRun_threads() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "100000", "--threads", "3", "--seed", "9"});
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(100000L, result.getDrawingCount());
+    }
+
+    @Test
+    public void testRun_fastForwardUntilJackpot() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--fast-forward", "--seed", "4", "--picks", "7,14,21,28,35,42"});
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(1L, result.getMatchesOf6());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_fastForwardIsSingleThreaded() {
+        LottoCli.parse(new String[]{"--drawings", "10", "--threads", "2", "--fast-forward"});
+    }
+
+    @Test
+    public void testRun_namedGenerator() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--drawings", "50000", "--threads", "2", "--rng", "Xoroshiro128PlusPlus", "--seed", "1"});
+        assertEquals(50000L, cli.run(new PrintStream(new ByteArrayOutputStream())).getDrawingCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_unknownGenerator() {
+        LottoCli.parse(new String[]{"--rng", "NoSuchRandom"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_coordinatorNeedsFixedCount() {
+        LottoCli.parse(new String[]{"--coordinator", "0"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_workerTakesNoRunOptions() {
+        LottoCli.parse(new String[]{"--worker", "localhost:7070", "--drawings", "10"});
+    }
+
+    @Test
+    public void testParse_workerWithThreads() {
+        LottoCli.parse(new String[]{"--worker", "localhost:7070", "--threads", "4"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_yearsOverflow() {
+        LottoCli.parse(new String[]{"--years", String.valueOf(Long.MAX_VALUE / 100)});
+    }
+}
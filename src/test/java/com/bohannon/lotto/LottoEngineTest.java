@@ -83,6 +83,41 @@ public class LottoEngineTest {
         assertEquals(3, engine.countMatches(picks, winners));
     }
 
+    // ---- bitmask form ----
+
+    @Test
+    public void testToMask_roundTrip() {
+        int[] numbers = {50, 1, 10, 7, 8, 9};
+        long mask = LottoEngine.toMask(numbers);
+        assertEquals(6, Long.bitCount(mask));
+        assertArrayEquals(new int[]{1, 7, 8, 9, 10, 50}, LottoEngine.fromMask(mask));
+    }
+
+    @Test
+    public void testToMask_ignoresUnsetPicks() {
+        assertEquals(0L, LottoEngine.toMask(new int[6]));
+    }
+
+    @Test
+    public void testCountMatches_maskAgreesWithArrays() {
+        LottoEngine engine = new LottoEngine(new Random(7));
+        for (int trial = 0; trial < 1000; trial++) {
+            int[] picks = engine.generateNumbers();
+            int[] winners = engine.generateNumbers();
+            assertEquals(engine.countMatches(picks, winners),
+                    LottoEngine.countMatches(LottoEngine.toMask(picks), LottoEngine.toMask(winners)));
+        }
+    }
+
+    @Test
+    public void testRunOneDrawing_winnersMaskMatchesWinners() {
+        LottoEngine engine = new LottoEngine(new Random(42));
+        engine.setPicks(new int[]{1, 2, 3, 4, 5, 6});
+        engine.runOneDrawing();
+        assertEquals(LottoEngine.toMask(engine.getWinners()), engine.getWinnersMask());
+        assertEquals(LottoEngine.toMask(engine.getPicks()), engine.getPicksMask());
+    }
+
     // ---- generateNumbers ----
 
     @Test
@@ -132,6 +167,15 @@ public class LottoEngineTest {
         }
     }
 
+    @Test
+    public void testGenerateMask_sameDrawsAsGenerateNumbers() {
+        LottoEngine arrays = new LottoEngine(new Random(12345));
+        LottoEngine masks = new LottoEngine(new Random(12345));
+        for (int trial = 0; trial < 100; trial++) {
+            assertEquals(LottoEngine.toMask(arrays.generateNumbers()), masks.generateMask());
+        }
+    }
+
     // ---- generateQuickPick ----
 
     @Test
@@ -203,6 +247,52 @@ public class LottoEngineTest {
         assertEquals(6, matches);
     }
 
+    // ---- runDrawings ----
+
+    @Test
+    public void testRunDrawings_sameTalliesAsSingleDrawings() {
+        LottoEngine single = new LottoEngine(new Random(42));
+        single.setPicks(new int[]{7, 14, 21, 28, 35, 42});
+        for (int i = 0; i < 5000; i++) {
+            single.runOneDrawing();
+        }
+
+        LottoEngine batch = new LottoEngine(new Random(42));
+        batch.setPicks(new int[]{7, 14, 21, 28, 35, 42});
+        assertEquals(5000, batch.runDrawings(5000));
+
+        assertEquals(single.getDrawingCount(), batch.getDrawingCount());
+        assertEquals(single.getMatchesOf3(), batch.getMatchesOf3());
+        assertEquals(single.getMatchesOf4(), batch.getMatchesOf4());
+        assertEquals(single.getMatchesOf5(), batch.getMatchesOf5());
+        assertArrayEquals(single.getWinners(), batch.getWinners());
+    }
+
+    @Test
+    public void testRunDrawings_writesDrawMasks() {
+        LottoEngine probe = new LottoEngine(new Random(5));
+        LottoEngine engine = new LottoEngine(new Random(5));
+        long[] draws = new long[12];
+        assertEquals(10, engine.runDrawings(10, draws, 2));
+        assertEquals(0L, draws[0]);
+        for (int i = 2; i < 12; i++) {
+            assertEquals(LottoEngine.toMask(probe.generateNumbers()), draws[i]);
+        }
+    }
+
+    @Test
+    public void testRunDrawings_stopsAfterJackpot() {
+        LottoEngine probe = new LottoEngine(new Random(99));
+        probe.generateNumbers();
+        int[] secondDraw = probe.generateNumbers();
+
+        LottoEngine engine = new LottoEngine(new Random(99));
+        engine.setPicks(secondDraw);
+        assertEquals(2, engine.runDrawings(100));
+        assertEquals(2, engine.getDrawingCount());
+        assertTrue(engine.isJackpotHit());
+    }
+
     // ---- recordMatches ----
 
     @Test
@@ -270,6 +360,19 @@ public class LottoEngineTest {
         assertEquals(0.5f, engine.getYears(), 0.001f);
     }
 
+    @Test
+    public void testGetYears_keepsPrecisionAtLargeCounts() {
+        LottoEngine engine = new LottoEngine(new Random(42));
+        int[] picks = {1, 2, 3, 4, 5, 6};
+        // 2^24 + 1 is the first count a float cannot represent exactly; a trillion is well past int range
+        for (long target : new long[]{(1L << 24) + 1, 1_000_000_000_001L}) {
+            engine.restore(LottoEngine.toMask(picks), LottoEngine.toMask(picks), new SimulationResult(target, 0, 0, 0, 0));
+            assertEquals(target, engine.getDrawingCount());
+            assertEquals(target / 104.0, engine.getYears(), 1e-9);
+            assertEquals(target / 104.0, new SimulationResult(target, 0, 0, 0, 0).getYears(), 1e-9);
+        }
+    }
+
     @Test
     public void testGetYears_zeroDrawings() {
         LottoEngine engine = new LottoEngine();
@@ -298,6 +401,23 @@ public class LottoEngineTest {
         assertEquals(0.0f, engine.getYears(), 0.001f);
     }
 
+    // ---- snapshot ----
+
+    @Test
+    public void testSnapshot_isDetachedCopy() {
+        LottoEngine engine = new LottoEngine(new Random(42));
+        engine.setPicks(new int[]{1, 2, 3, 4, 5, 6});
+        engine.runDrawings(1000);
+        LottoSnapshot snapshot = engine.snapshot();
+        int[] winners = engine.getWinners().clone();
+
+        engine.runDrawings(10);
+
+        assertEquals(1000, snapshot.getTallies().getDrawingCount());
+        assertArrayEquals(winners, snapshot.getWinners());
+        assertEquals(1010, engine.getDrawingCount());
+    }
+
     // ---- Integration / stress test ----
 
     @Test
@@ -0,0 +1,74 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class LottoStatisticsTest {
+
+    @Test
+    public void testAdd_singleWriter() {
+        LottoStatistics stats = new LottoStatistics(1);
+        stats.add(10, 1, 2, 3, 4);
+        stats.add(5, 1, 0, 0, 0);
+        assertEquals(new SimulationResult(15, 2, 2, 3, 4), stats.snapshot());
+    }
+
+    @Test
+    public void testAdd_beyondIntRange() {
+        LottoStatistics stats = new LottoStatistics(1);
+        stats.add(3000000000L, 0, 0, 0, 0);
+        stats.add(3000000000L, 0, 0, 0, 0);
+        assertEquals(6000000000L, stats.snapshot().getDrawingCount());
+    }
+
+    @Test
+    public void testAdd_differenceOfResults() {
+        LottoStatistics stats = new LottoStatistics();
+        stats.add(new SimulationResult(10, 1, 1, 0, 0), new SimulationResult(25, 3, 1, 1, 0));
+        assertEquals(new SimulationResult(15, 2, 0, 1, 0), stats.snapshot());
+    }
+
+    @Test
+    public void testConcurrentWriters_noLostUpdatesAndConsistentSnapshots() throws Exception {
+        final LottoStatistics stats = new LottoStatistics(4);
+        final int writers = 8;
+        final int adds = 100000;
+        final CountDownLatch done = new CountDownLatch(writers);
+        final AtomicBoolean inconsistent = new AtomicBoolean();
+
+        for (int w = 0; w < writers; w++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < adds; i++) {
+                        // Every add keeps drawings == 4 * matchesOf3 == 2 * matchesOf6
+                        stats.add(4, 1, 0, 0, 2);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        while (done.getCount() > 0) {
+            SimulationResult s = stats.snapshot();
+            if (s.getDrawingCount() != 4 * s.getMatchesOf3() || s.getDrawingCount() != 2 * s.getMatchesOf6()) {
+                inconsistent.set(true);
+            }
+        }
+        done.await();
+
+        assertFalse("Snapshot observed a partially applied add", inconsistent.get());
+        assertEquals(new SimulationResult(4L * writers * adds, (long) writers * adds, 0, 0, 2L * writers * adds),
+                stats.snapshot());
+    }
+
+    @Test
+    public void testParallelSimulator_progressMatchesResult() throws Exception {
+        LottoStatistics progress = new LottoStatistics();
+        SimulationResult result = new ParallelSimulator(3).run(300000, new int[]{1, 2, 3, 4, 5, 6}, 17, progress);
+        assertEquals(result, progress.snapshot());
+    }
+}
@@ -0,0 +1,80 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MaskScorerTest {
+
+    private static long[] randomTickets(int count, long seed) {
+        LottoEngine engine = new LottoEngine(new Random(seed));
+        long[] masks = new long[count];
+        for (int i = 0; i < count; i++) {
+            masks[i] = engine.generateMask();
+        }
+        return masks;
+    }
+
+    @Test
+    public void testBest_usesVectorScorerWhenModulePresent() {
+        // The build runs tests with --add-modules jdk.incubator.vector
+        assertTrue(MaskScorer.best() instanceof VectorMaskScorer);
+    }
+
+    @Test
+    public void testVector_agreesWithScalar() {
+        long[] masks = randomTickets(100003, 1);
+        long draw = LottoEngine.toMask(new int[]{3, 9, 17, 28, 33, 50});
+        long[] expected = new long[7];
+        long[] actual = new long[7];
+        MaskScorer.scalar().score(draw, masks, 0, masks.length, expected);
+        new VectorMaskScorer().score(draw, masks, 0, masks.length, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testVector_rangesAndTails() {
+        long[] masks = randomTickets(257, 2);
+        long draw = masks[100];
+        for (int from = 0; from < 20; from += 3) {
+            for (int to = from; to < masks.length; to += 17) {
+                long[] expected = new long[7];
+                long[] actual = new long[7];
+                MaskScorer.scalar().score(draw, masks, from, to, expected);
+                new VectorMaskScorer().score(draw, masks, from, to, actual);
+                assertArrayEquals("[" + from + ", " + to + ")", expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testVector_accumulatesIntoExistingCounts() {
+        long[] masks = randomTickets(64, 3);
+        long[] counts = {1, 1, 1, 1, 1, 1, 1};
+        new VectorMaskScorer().score(masks[0], masks, 0, masks.length, counts);
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        assertEquals(64 + 7, total);
+        assertTrue(counts[6] >= 2);
+    }
+
+    @Test
+    public void testScoreManyDrawsAgainstOneTicket() {
+        int[] picks = {7, 14, 21, 28, 35, 42};
+        LottoEngine engine = new LottoEngine(new Random(4));
+        engine.setPicks(picks);
+        long[] draws = new long[50000];
+        int ran = engine.runDrawings(draws.length, draws, 0);
+
+        long[] tiers = new long[7];
+        MaskScorer.best().score(LottoEngine.toMask(picks), draws, 0, ran, tiers);
+        assertEquals(engine.getMatchesOf3(), tiers[3]);
+        assertEquals(engine.getMatchesOf4(), tiers[4]);
+        assertEquals(engine.getMatchesOf5(), tiers[5]);
+        assertEquals(engine.getMatchesOf6(), tiers[6]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelSimulatorTest {
+
+    private static final int[] PICKS = {7, 14, 21, 28, 35, 42};
+
+    @Test
+    public void testPartitionSize_coversAllDrawings() {
+        long total = 0;
+        for (int p = 0; p < 7; p++) {
+            total += ParallelSimulator.partitionSize(1000003, 7, p);
+        }
+        assertEquals(1000003, total);
+    }
+
+    @Test
+    public void testPartitionSeed_distinctPerPartition() {
+        assertNotEquals(ParallelSimulator.partitionSeed(1, 0), ParallelSimulator.partitionSeed(1, 1));
+        assertNotEquals(ParallelSimulator.partitionSeed(1, 0), ParallelSimulator.partitionSeed(2, 0));
+    }
+
+    @Test
+    public void testRun_drawingCountMerged() throws Exception {
+        SimulationResult result = new ParallelSimulator(4).run(200001, PICKS, 42);
+        assertEquals(200001, result.getDrawingCount());
+        assertTrue(result.getMatchesOf3() > 0);
+    }
+
+    @Test
+    public void testRun_reproducibleForSeedAndPartitions() throws Exception {
+        SimulationResult first = new ParallelSimulator(4).run(100000, PICKS, 42);
+        SimulationResult second = new ParallelSimulator(4).run(100000, PICKS, 42);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testRun_singlePartitionMatchesSequentialEngine() throws Exception {
+        SimulationResult parallel = new ParallelSimulator(1).run(50000, PICKS, 5);
+
+        LottoEngine engine = new LottoEngine(new Random(ParallelSimulator.partitionSeed(5, 0)));
+        engine.setPicks(PICKS);
+        for (int i = 0; i < 50000; i++) {
+            engine.runOneDrawing();
+        }
+        assertEquals(SimulationResult.of(engine), parallel);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rejectsZeroPartitions() {
+        new ParallelSimulator(0);
+    }
+}
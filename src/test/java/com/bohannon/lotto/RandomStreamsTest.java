@@ -0,0 +1,83 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.Assert.*;
+
+public class RandomStreamsTest {
+
+    private static final int[] PICKS = {7, 14, 21, 28, 35, 42};
+
+    @Test
+    public void testCreate_legacyIsJavaUtilRandom() {
+        RandomGenerator random = RandomStreams.create(RandomStreams.LEGACY, 42);
+        assertTrue(random instanceof Random);
+        assertEquals(new Random(42).nextInt(50), random.nextInt(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_unknownAlgorithm() {
+        RandomStreams.create("NoSuchRandom", 1);
+    }
+
+    @Test
+    public void testPartitions_reproducible() {
+        for (String algorithm : new String[]{"L64X128MixRandom", "Xoroshiro128PlusPlus", "SplittableRandom", "Random"}) {
+            List<RandomGenerator> first = RandomStreams.partitions(algorithm, 99, 4);
+            List<RandomGenerator> second = RandomStreams.partitions(algorithm, 99, 4);
+            for (int p = 0; p < 4; p++) {
+                assertEquals(algorithm, first.get(p).nextLong(), second.get(p).nextLong());
+            }
+        }
+    }
+
+    @Test
+    public void testPartition_matchesPartitions() {
+        for (String algorithm : new String[]{"L64X128MixRandom", "Xoroshiro128PlusPlus", "SplittableRandom", "Random"}) {
+            List<RandomGenerator> all = RandomStreams.partitions(algorithm, 17, 6);
+            for (int p = 0; p < 6; p++) {
+                RandomGenerator one = RandomStreams.partition(algorithm, 17, p);
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(algorithm + " partition " + p, all.get(p).nextLong(), one.nextLong());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartition_rejectsAlgorithmThatCannotPartition() {
+        RandomStreams.partition("SecureRandom", 1, 0);
+    }
+
+    @Test
+    public void testPartitions_streamsDiffer() {
+        for (String algorithm : new String[]{"L64X128MixRandom", "Xoroshiro128PlusPlus"}) {
+            List<RandomGenerator> streams = RandomStreams.partitions(algorithm, 5, 3);
+            long a = streams.get(0).nextLong();
+            long b = streams.get(1).nextLong();
+            long c = streams.get(2).nextLong();
+            assertTrue(algorithm, a != b && b != c && a != c);
+        }
+    }
+
+    @Test
+    public void testEngine_acceptsAnyGenerator() {
+        LottoEngine engine = new LottoEngine(new SplittableRandom(3));
+        engine.setPicks(PICKS);
+        assertEquals(10000, engine.runDrawings(10000));
+        assertTrue(engine.getMatchesOf3() > 0);
+    }
+
+    @Test
+    public void testParallelSimulator_reproducibleWithSplittableStreams() throws Exception {
+        SimulationResult first = new ParallelSimulator(4, "L64X128MixRandom").run(200000, PICKS, 11);
+        SimulationResult second = new ParallelSimulator(4, "L64X128MixRandom").run(200000, PICKS, 11);
+        assertEquals(first, second);
+        assertEquals(200000, first.getDrawingCount());
+    }
+}
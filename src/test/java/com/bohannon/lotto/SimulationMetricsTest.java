@@ -0,0 +1,93 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SimulationMetricsTest {
+
+    @Test
+    public void testBucket_powersOfTwo() {
+        assertEquals(0, SimulationMetrics.bucket(0));
+        assertEquals(0, SimulationMetrics.bucket(1));
+        assertEquals(1, SimulationMetrics.bucket(3));
+        assertEquals(10, SimulationMetrics.bucket(1024));
+        assertEquals(10, SimulationMetrics.bucket(2047));
+    }
+
+    @Test
+    public void testRecordBatch_talliesAndLatency() {
+        SimulationMetrics metrics = new SimulationMetrics(1);
+        SimulationResult first = new SimulationResult(1000, 20, 1, 0, 0);
+        SimulationResult second = new SimulationResult(3000, 55, 2, 1, 0);
+        metrics.recordBatch(SimulationResult.EMPTY, first, 1000);
+        metrics.recordBatch(first, second, 4000);
+
+        assertEquals(second, metrics.getTallies());
+        assertEquals(2, metrics.getBatchCount());
+        assertEquals(2.5, metrics.getBatchLatencyMeanMicros(), 1e-9);
+        assertEquals(4.0, metrics.getBatchLatencyMaxMicros(), 1e-9);
+        assertEquals(1, metrics.getBatchLatencyHistogram()[9]);
+        assertEquals(1, metrics.getBatchLatencyHistogram()[11]);
+        assertEquals(1.024, metrics.getBatchLatencyP50Micros(), 1e-9);
+        assertEquals(4.096, metrics.getBatchLatencyP99Micros(), 1e-9);
+    }
+
+    @Test
+    public void testSample_currentRateAndUtilization() throws InterruptedException {
+        SimulationMetrics metrics = new SimulationMetrics(2);
+        metrics.sample();
+        Thread.sleep(20);
+        metrics.recordBatch(SimulationResult.EMPTY, new SimulationResult(5000, 0, 0, 0, 0), 1_000_000);
+        metrics.sample();
+        assertTrue(metrics.getCurrentDrawingsPerSecond() > 0);
+        assertTrue(metrics.getCurrentWorkerUtilization() > 0);
+        assertTrue(metrics.getCurrentWorkerUtilization() < 1);
+    }
+
+    @Test
+    public void testRecordRender_measuresSnapshotAge() throws InterruptedException {
+        SimulationMetrics metrics = new SimulationMetrics(1);
+        LottoSnapshot snapshot = new LottoEngine(new Random(1)).snapshot();
+        Thread.sleep(5);
+        metrics.recordRender(snapshot);
+        assertTrue(metrics.getRenderDelayMeanMillis() >= 5);
+        assertEquals(metrics.getRenderDelayMeanMillis(), metrics.getRenderDelayMaxMillis(), 1e-9);
+    }
+
+    @Test
+    public void testStart_registersMBeanUntilClosed() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SimulationMetrics.DOMAIN + ":type=SimulationMetrics,name=test");
+        try (SimulationMetrics metrics = new SimulationMetrics(1).start("test", 60000, null)) {
+            metrics.recordBatch(SimulationResult.EMPTY, new SimulationResult(42, 1, 0, 0, 0), 100);
+            assertEquals(42L, server.getAttribute(name, "DrawingCount"));
+            assertEquals(1L, server.getAttribute(name, "MatchesOf3"));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testParallelSimulator_recordsEveryBatch() throws InterruptedException {
+        SimulationMetrics metrics = new SimulationMetrics(3);
+        SimulationResult result = new ParallelSimulator(3).run(3L * LottoEngine.BATCH_SIZE + 10,
+                new int[]{1, 2, 3, 4, 5, 6}, 5L, null, metrics);
+        assertEquals(result, metrics.getTallies());
+        assertEquals(6, metrics.getBatchCount());
+    }
+
+    @Test
+    public void testCli_printsMetricsLines() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        LottoCli.parse(new String[]{"--drawings", "300000", "--seed", "2", "--metrics", "1"})
+                .run(new PrintStream(bytes));
+        assertTrue(bytes.toString().contains("Batches:   5,"));
+    }
+}
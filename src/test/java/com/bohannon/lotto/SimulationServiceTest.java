@@ -0,0 +1,135 @@
+package com.bohannon.lotto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimulationServiceTest {
+
+    private SimulationService service;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Before
+    public void setUp() throws Exception {
+        service = new SimulationService(0);
+    }
+
+    @After
+    public void tearDown() {
+        service.close();
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(service.getUri().resolve(path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void awaitDrawings(SimulationService.Session session, long atLeast) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (session.snapshot().getTallies().getDrawingCount() < atLeast) {
+            assertTrue("session made no progress", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testSessionLifecycle_overHttp() throws Exception {
+        HttpResponse<String> created = send("POST", "/sessions?picks=7,14,21,28,35,42&seed=3");
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"picks\":[7,14,21,28,35,42]"));
+        assertTrue(created.body().contains("\"running\":false"));
+        SimulationService.Session session = service.get(1);
+
+        assertEquals(200, send("POST", "/sessions/1/start").statusCode());
+        awaitDrawings(session, 3 * SimulationService.SLICE_DRAWINGS);
+        assertEquals(200, send("POST", "/sessions/1/stop").statusCode());
+        Thread.sleep(20);
+        long stopped = session.snapshot().getTallies().getDrawingCount();
+        Thread.sleep(50);
+        assertEquals(stopped, session.snapshot().getTallies().getDrawingCount());
+
+        String status = send("GET", "/sessions/1").body();
+        assertTrue(status.contains("\"drawings\":" + stopped));
+
+        assertTrue(send("POST", "/sessions/1/reset").body().contains("\"drawings\":0"));
+        assertArrayEquals(new int[]{7, 14, 21, 28, 35, 42}, session.getPicks());
+
+        assertEquals(200, send("DELETE", "/sessions/1").statusCode());
+        assertEquals(404, send("GET", "/sessions/1").statusCode());
+    }
+
+    @Test
+    public void testSeededSession_matchesPlainEngine() throws Exception {
+        SimulationService.Session session = service.create(new int[]{1, 2, 3, 4, 5, 6}, 11L);
+        session.start();
+        awaitDrawings(session, 2 * SimulationService.SLICE_DRAWINGS);
+        session.stop();
+        Thread.sleep(20);
+        LottoSnapshot snapshot = session.snapshot();
+
+        LottoEngine expected = new LottoEngine(new java.util.Random(11));
+        expected.setPicks(new int[]{1, 2, 3, 4, 5, 6});
+        expected.runDrawings((int) snapshot.getTallies().getDrawingCount());
+        assertEquals(SimulationResult.of(expected), snapshot.getTallies());
+    }
+
+    @Test
+    public void testBadRequests() throws Exception {
+        assertEquals(400, send("POST", "/sessions?picks=1,1,2,3,4,5").statusCode());
+        assertEquals(404, send("GET", "/sessions/99").statusCode());
+        assertEquals(405, send("GET", "/sessions").statusCode());
+        send("POST", "/sessions");
+        assertEquals(404, send("POST", "/sessions/1/explode").statusCode());
+        assertEquals(405, send("PUT", "/sessions/1").statusCode());
+        assertEquals(404, send("POST", "/sessionsXYZ").statusCode());
+        assertEquals(404, send("GET", "/sessions/abc").statusCode());
+        assertEquals(404, send("POST", "/sessions/1/start/now").statusCode());
+        assertEquals(404, send("GET", "/statsXYZ").statusCode());
+        assertEquals(1, service.getSessionCount());
+    }
+
+    @Test
+    public void testJsonString_escapes() {
+        assertEquals("null", SimulationService.jsonString(null));
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", SimulationService.jsonString("a\"b\\c\n\u0001"));
+        assertEquals("{\"error\":null}", SimulationService.error(null));
+    }
+
+    @Test
+    public void testManySessions_allMakeProgress() throws Exception {
+        SimulationService.Session[] sessions = new SimulationService.Session[200];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = service.create(null, (long) i);
+            sessions[i].start();
+        }
+        for (SimulationService.Session session : sessions) {
+            awaitDrawings(session, SimulationService.SLICE_DRAWINGS);
+        }
+        String stats = send("GET", "/stats").body();
+        assertTrue(stats.contains("\"sessions\":200"));
+    }
+
+    @Test
+    public void testLoadGenerator_reportsEachStep() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<ServiceLoadGenerator.Step> steps = new ServiceLoadGenerator(service.getUri())
+                .run(new int[]{1, 20}, 300, new PrintStream(bytes));
+        assertEquals(2, steps.size());
+        assertEquals(20, steps.get(1).getSessions());
+        assertTrue(steps.get(1).getDrawingsPerSecond() > 0);
+        assertTrue(bytes.toString().contains("sessions=20 "));
+        assertEquals(0, service.getSessionCount());
+    }
+}
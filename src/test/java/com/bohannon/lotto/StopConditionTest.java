@@ -0,0 +1,158 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class StopConditionTest {
+
+    private static LottoEngine engine(long seed) {
+        LottoEngine engine = new LottoEngine(new Random(seed));
+        engine.setPicks(new int[]{4, 8, 15, 16, 23, 42});
+        return engine;
+    }
+
+    @Test
+    public void testDrawings_exactAcrossBatches() throws InterruptedException {
+        LottoEngine engine = engine(1);
+        assertEquals(StopCondition.Reason.DRAWINGS, engine.run(StopCondition.drawings(10000), 3000, null));
+        assertEquals(10000, engine.getDrawingCount());
+    }
+
+    @Test
+    public void testYears_exact() throws InterruptedException {
+        LottoEngine engine = engine(2);
+        assertEquals(StopCondition.Reason.DRAWINGS, engine.run(StopCondition.years(7)));
+        assertEquals(7L * LottoEngine.DRAWINGS_PER_YEAR, engine.getDrawingCount());
+    }
+
+    @Test
+    public void testJackpot_stopsOnTheWinningDrawing() throws InterruptedException {
+        LottoEngine probe = new LottoEngine(new Random(3));
+        probe.generateNumbers();
+        probe.generateNumbers();
+        int[] third = probe.generateNumbers();
+
+        LottoEngine engine = new LottoEngine(new Random(3));
+        engine.setPicks(third);
+        assertEquals(StopCondition.Reason.JACKPOT, engine.run(StopCondition.jackpot().or(StopCondition.drawings(1000))));
+        assertEquals(3, engine.getDrawingCount());
+        assertEquals(1, engine.getMatchesOf6());
+    }
+
+    @Test
+    public void testTierCount_reachedWithinOneBatch() throws InterruptedException {
+        LottoEngine engine = engine(4);
+        assertEquals(StopCondition.Reason.TIER_TARGET, engine.run(StopCondition.tierCount(4, 5), 1000, null));
+        assertTrue(engine.getMatchesOf4() >= 5);
+
+        LottoEngine replay = engine(4);
+        long before = engine.getDrawingCount() - 1000;
+        replay.runDrawings((int) before);
+        assertTrue(replay.getMatchesOf4() < 5);
+    }
+
+    @Test
+    public void testOr_firstConditionMetWins() throws InterruptedException {
+        LottoEngine engine = engine(5);
+        StopCondition until = StopCondition.tierCount(3, 1_000_000).or(StopCondition.drawings(500));
+        assertEquals(StopCondition.Reason.DRAWINGS, engine.run(until));
+        assertEquals(500, engine.getDrawingCount());
+        assertEquals(StopCondition.drawings(500).or(StopCondition.tierCount(3, 1_000_000)), until);
+    }
+
+    @Test
+    public void testRun_alreadyMetRunsNothing() throws InterruptedException {
+        LottoEngine engine = engine(6);
+        engine.runDrawings(100);
+        assertEquals(StopCondition.Reason.DRAWINGS, engine.run(StopCondition.drawings(50)));
+        assertEquals(100, engine.getDrawingCount());
+        assertEquals(0, engine.runBatch(StopCondition.drawings(50), 10, null));
+    }
+
+    @Test
+    public void testRun_listenerSeesEveryBatch() throws InterruptedException {
+        LottoEngine engine = engine(7);
+        final long[] seen = new long[2];
+        engine.run(StopCondition.drawings(2500), 1000, new LottoEngine.BatchListener() {
+            public void batchDone(LottoEngine e, int drawings, long nanos) {
+                seen[0]++;
+                seen[1] += drawings;
+            }
+        });
+        assertArrayEquals(new long[]{3, 2500}, seen);
+    }
+
+    @Test
+    public void testRun_interruptedBeforeStart() {
+        LottoEngine engine = engine(8);
+        Thread.currentThread().interrupt();
+        try {
+            engine.run(StopCondition.NEVER);
+            fail("expected InterruptedException");
+        } catch (InterruptedException e) {
+            assertEquals(0, engine.getDrawingCount());
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    public void testRun_cancelledWithinMilliseconds() throws InterruptedException {
+        final LottoEngine engine = new LottoEngine(new CapturableRandom(9));
+        engine.generateQuickPick();
+        final AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                engine.run(StopCondition.NEVER);
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        runner.start();
+        Thread.sleep(100);
+        long start = System.nanoTime();
+        runner.interrupt();
+        runner.join(2000);
+        long tookMillis = (System.nanoTime() - start) / 1_000_000;
+        assertFalse(runner.isAlive());
+        assertTrue(outcome.get() instanceof InterruptedException);
+        assertTrue("cancel took " + tookMillis + " ms", tookMillis < 500);
+        assertTrue(engine.getDrawingCount() > 0);
+    }
+
+    @Test
+    public void testParallelSimulator_cancelledByInterrupt() throws InterruptedException {
+        final AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                new ParallelSimulator(2).run(Long.MAX_VALUE / 2, new int[]{1, 2, 3, 4, 5, 6}, 1L);
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        caller.start();
+        Thread.sleep(100);
+        caller.interrupt();
+        caller.join(2000);
+        assertFalse(caller.isAlive());
+        assertTrue(outcome.get() instanceof InterruptedException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTierCount_rejectsNonPrizeTier() {
+        StopCondition.tierCount(2, 1);
+    }
+
+    @Test
+    public void testCli_untilTier() throws Exception {
+        LottoCli cli = LottoCli.parse(new String[]{"--until-tier", "4:3", "--seed", "10"});
+        assertEquals(StopCondition.tierCount(4, 3), cli.stopCondition());
+        SimulationResult result = cli.run(new PrintStream(new ByteArrayOutputStream()));
+        assertTrue(result.getMatchesOf4() >= 3);
+    }
+}
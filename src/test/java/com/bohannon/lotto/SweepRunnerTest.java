@@ -0,0 +1,124 @@
+package com.bohannon.lotto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SweepRunnerTest {
+
+    private static final int[] PICKS = {4, 8, 15, 16, 23, 42};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<SweepRunner.Scenario> grid(long... drawings) {
+        List<SweepRunner.Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < drawings.length; i++) {
+            scenarios.add(SweepRunner.Scenario.of(PICKS, 100 + i, drawings[i]));
+        }
+        return scenarios;
+    }
+
+    @Test
+    public void testRun_matchesDirectEngine() throws InterruptedException {
+        GameEngine engine = new GameEngine(GameSpec.DEFAULT, RandomStreams.create(RandomStreams.LEGACY, 7L));
+        engine.setPicks(PICKS);
+        for (int i = 0; i < 50_000; i++) {
+            engine.runOneDrawing();
+        }
+
+        try (SweepRunner runner = new SweepRunner(2, 16, null)) {
+            SweepRunner.Result result = runner.run(
+                    List.of(SweepRunner.Scenario.of(PICKS, 7L, 50_000)), null).get(0);
+            assertEquals(50_000, result.getDrawingCount());
+            for (int t = 0; t < GameSpec.DEFAULT.getTiers().size(); t++) {
+                assertEquals(engine.getTierCount(t), result.getTierCount(t));
+            }
+            assertEquals(engine.getTotalPrize(), result.getTotalPrize());
+            assertFalse(result.isCached());
+        }
+    }
+
+    @Test
+    public void testRun_streamsEveryResultAndMemoizes() throws InterruptedException {
+        List<SweepRunner.Scenario> scenarios = grid(1_000, 5_000, 2_000, 3_000);
+        try (SweepRunner runner = new SweepRunner(2, 16, null)) {
+            List<Integer> seen = new ArrayList<>();
+            List<SweepRunner.Result> first = runner.run(scenarios, (index, result) -> seen.add(index));
+            assertEquals(4, seen.size());
+            assertTrue(seen.containsAll(List.of(0, 1, 2, 3)));
+            assertEquals(4, runner.getExecutions());
+
+            List<SweepRunner.Result> second = runner.run(scenarios, null);
+            assertEquals(4, runner.getExecutions());
+            for (int i = 0; i < scenarios.size(); i++) {
+                assertSame(scenarios.get(i), first.get(i).getScenario());
+                assertTrue(second.get(i).isCached());
+                assertArrayEquals(first.get(i).getTierCounts(), second.get(i).getTierCounts());
+            }
+        }
+    }
+
+    @Test
+    public void testRun_duplicatesRunOnce() throws InterruptedException {
+        SweepRunner.Scenario a = SweepRunner.Scenario.of(PICKS, 1L, 2_000);
+        SweepRunner.Scenario b = SweepRunner.Scenario.of(new int[]{42, 23, 16, 15, 8, 4}, 1L, 2_000);
+        assertEquals(a.key(), b.key());
+        try (SweepRunner runner = new SweepRunner(2, 16, null)) {
+            List<SweepRunner.Result> results = runner.run(Arrays.asList(a, b, a), null);
+            assertEquals(1, runner.getExecutions());
+            assertEquals(3, results.size());
+            assertSame(b, results.get(1).getScenario());
+            assertArrayEquals(results.get(0).getTierCounts(), results.get(1).getTierCounts());
+            assertArrayEquals(results.get(0).getTierCounts(), results.get(2).getTierCounts());
+        }
+    }
+
+    @Test
+    public void testRun_largestFirstOnOneThread() throws InterruptedException {
+        List<SweepRunner.Scenario> scenarios = grid(1_000, 8_000, 3_000, 5_000);
+        try (SweepRunner runner = new SweepRunner(1, 16, null)) {
+            List<Long> order = new ArrayList<>();
+            runner.run(scenarios, (index, result) -> order.add(result.getScenario().getDrawings()));
+            assertEquals(List.of(8_000L, 5_000L, 3_000L, 1_000L), order);
+        }
+    }
+
+    @Test
+    public void testCache_evictsToSpillDirectory() throws Exception {
+        Path dir = folder.newFolder("spill").toPath();
+        List<SweepRunner.Scenario> scenarios = grid(1_000, 1_000, 1_000);
+        List<SweepRunner.Result> computed;
+        try (SweepRunner runner = new SweepRunner(1, 2, dir)) {
+            computed = runner.run(scenarios, null);
+            assertEquals(2, runner.getCache().size());
+            assertEquals(1, runner.getCache().getSpills());
+
+            // The evicted result comes back from disk
+            assertTrue(runner.run(scenarios, null).get(0).isCached());
+            assertEquals(3, runner.getExecutions());
+        }
+
+        SweepCache reopened = new SweepCache(8, dir);
+        for (int i = 0; i < scenarios.size(); i++) {
+            long[] values = reopened.get(scenarios.get(i).key());
+            assertNotNull(values);
+            assertEquals(1_000, values[0]);
+            assertArrayEquals(computed.get(i).getTierCounts(), Arrays.copyOfRange(values, 1, values.length));
+        }
+        assertNull(new SweepCache(8, null).get(scenarios.get(0).key()));
+        assertNull(reopened.get(SweepRunner.Scenario.of(PICKS, 1L, 999).key()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScenario_rejectsBadTicket() {
+        SweepRunner.Scenario.of(new int[]{1, 2, 3}, 1L, 10);
+    }
+}
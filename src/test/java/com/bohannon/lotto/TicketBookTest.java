@@ -0,0 +1,64 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TicketBookTest {
+
+    @Test
+    public void testAdd_growsPastInitialCapacity() {
+        TicketBook book = new TicketBook(2);
+        for (int i = 0; i < 100; i++) {
+            book.add(new int[]{1, 2, 3, 4, 5, 6});
+        }
+        assertEquals(100, book.size());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, book.getTicket(99));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetMask_beyondSize() {
+        TicketBook book = new TicketBook(8);
+        book.add(new int[]{1, 2, 3, 4, 5, 6});
+        book.getMask(1);
+    }
+
+    @Test
+    public void testScore_perTierCounts() {
+        TicketBook book = new TicketBook();
+        book.add(new int[]{1, 2, 3, 4, 5, 6});
+        book.add(new int[]{1, 2, 3, 10, 11, 12});
+        book.add(new int[]{1, 2, 3, 4, 11, 12});
+        book.add(new int[]{20, 21, 22, 23, 24, 25});
+        long[] tiers = book.score(LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6}));
+        assertArrayEquals(new long[]{1, 0, 0, 1, 1, 0, 1}, tiers);
+    }
+
+    @Test
+    public void testScore_agreesWithCountMatches() {
+        LottoEngine engine = new LottoEngine(new Random(11));
+        TicketBook book = TicketBook.quickPicks(engine, 10000);
+        int[] draw = engine.generateNumbers();
+
+        long[] expected = new long[LottoEngine.NUM_PICKS + 1];
+        for (int i = 0; i < book.size(); i++) {
+            expected[engine.countMatches(book.getTicket(i), draw)]++;
+        }
+        assertArrayEquals(expected, book.score(LottoEngine.toMask(draw)));
+    }
+
+    @Test
+    public void testSimulate_totalsEqualTicketsTimesDrawings() {
+        LottoEngine engine = new LottoEngine(new Random(3));
+        TicketBook book = TicketBook.quickPicks(engine, 500);
+        long[] tiers = new long[LottoEngine.NUM_PICKS + 1];
+        book.simulate(engine, 200, tiers);
+        long total = 0;
+        for (long t : tiers) {
+            total += t;
+        }
+        assertEquals(500L * 200, total);
+    }
+}
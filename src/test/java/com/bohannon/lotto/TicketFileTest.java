@@ -0,0 +1,113 @@
+package com.bohannon.lotto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TicketFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteThenOpen_roundTrip() throws IOException {
+        LottoEngine engine = new LottoEngine(new Random(8));
+        TicketBook book = TicketBook.quickPicks(engine, 1000);
+        Path path = folder.newFile("book.tkt").toPath();
+        TicketFile.write(path, book);
+
+        assertEquals(TicketFile.HEADER_BYTES + 1000L * 8, Files.size(path));
+        try (TicketFile file = TicketFile.open(path)) {
+            assertEquals(1000, file.size());
+            for (int i = 0; i < book.size(); i++) {
+                assertEquals(book.getMask(i), file.getMask(i));
+            }
+        }
+    }
+
+    @Test
+    public void testScore_agreesWithTicketBook() throws IOException {
+        LottoEngine engine = new LottoEngine(new Random(21));
+        TicketBook book = TicketBook.quickPicks(engine, 300000);
+        Path path = folder.newFile("big.tkt").toPath();
+        TicketFile.write(path, book);
+
+        try (TicketFile file = TicketFile.open(path)) {
+            for (int d = 0; d < 5; d++) {
+                long draw = engine.generateMask();
+                assertArrayEquals(book.score(draw), file.score(draw));
+            }
+        }
+    }
+
+    @Test
+    public void testWriter_streamingAppend() throws IOException {
+        Path path = folder.newFile("stream.tkt").toPath();
+        try (TicketFile.Writer writer = TicketFile.create(path)) {
+            writer.add(new int[]{1, 2, 3, 4, 5, 6});
+            writer.add(new int[]{45, 46, 47, 48, 49, 50});
+            assertEquals(2, writer.getCount());
+        }
+        try (TicketFile file = TicketFile.open(path)) {
+            assertEquals(2, file.size());
+            assertArrayEquals(new long[]{1, 0, 0, 0, 0, 0, 1}, file.score(LottoEngine.toMask(new int[]{1, 2, 3, 4, 5, 6})));
+        }
+    }
+
+    @Test
+    public void testOpen_emptyBook() throws IOException {
+        Path path = folder.newFile("empty.tkt").toPath();
+        TicketFile.write(path, new TicketBook());
+        try (TicketFile file = TicketFile.open(path)) {
+            assertEquals(0, file.size());
+            assertArrayEquals(new long[7], file.score(0L));
+        }
+    }
+
+    @Test
+    public void testOpen_rejectsHeaderCountThatDoesNotFit() throws IOException {
+        Path path = folder.newFile("corrupt.tkt").toPath();
+        TicketFile.write(path, TicketBook.quickPicks(new LottoEngine(new Random(4)), 10));
+        // 2^61 + 1 tickets would wrap the byte length around to something the file appears to hold
+        for (long count : new long[]{11, -1, (1L << 61) + 1, Long.MAX_VALUE}) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, count), 8);
+            }
+            try {
+                TicketFile.open(path).close();
+                fail("expected count " + count + " to be rejected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("does not fit"));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_rejectsForeignFile() throws IOException {
+        Path path = folder.newFile("junk.bin").toPath();
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        TicketFile.open(path);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetMask_outOfRange() throws IOException {
+        Path path = folder.newFile("one.tkt").toPath();
+        TicketBook book = new TicketBook();
+        book.add(new int[]{1, 2, 3, 4, 5, 6});
+        TicketFile.write(path, book);
+        try (TicketFile file = TicketFile.open(path)) {
+            file.getMask(1);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bohannon.lotto;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WheelGeneratorTest {
+
+    private static final int[] POOL = {3, 7, 11, 18, 22, 25, 31, 36, 40, 47};
+
+    private static void assertPoolTickets(TicketBook book, int[] pool) {
+        long poolMask = LottoEngine.toMask(pool);
+        for (int i = 0; i < book.size(); i++) {
+            long ticket = book.getMask(i);
+            assertEquals(LottoEngine.NUM_PICKS, Long.bitCount(ticket));
+            assertEquals(0L, ticket & ~poolMask);
+        }
+    }
+
+    @Test
+    public void testCombinations_gospersHack() {
+        long[] combos = WheelGenerator.combinations(7, 3);
+        assertEquals(35, combos.length);
+        Set<Long> distinct = new HashSet<>();
+        for (long c : combos) {
+            assertEquals(3, Long.bitCount(c));
+            assertEquals(0L, c >>> 7);
+            distinct.add(c);
+        }
+        assertEquals(35, distinct.size());
+        assertArrayEquals(new long[]{0L}, WheelGenerator.combinations(4, 0));
+    }
+
+    @Test
+    public void testGenerate_threeIfThree_coversEveryTriple() throws InterruptedException {
+        WheelGenerator generator = new WheelGenerator(POOL, 3, 3);
+        assertEquals(120, generator.getConditionCount());
+        TicketBook wheel = generator.generate(1L, 300, 2);
+
+        assertTrue(generator.covers(wheel));
+        assertPoolTickets(wheel, POOL);
+        assertTrue(wheel.size() >= generator.getLowerBound());
+        assertTrue("wheel of " + wheel.size(), wheel.size() < 20);
+
+        // The guarantee, through the book's own scoring: any draw with 3 pool numbers hits a 3
+        Random random = new Random(2);
+        for (int trial = 0; trial < 200; trial++) {
+            long draw = 0L;
+            while (Long.bitCount(draw) < 3) {
+                draw |= 1L << POOL[random.nextInt(POOL.length)];
+            }
+            while (Long.bitCount(draw) < LottoEngine.NUM_PICKS) {
+                draw |= 1L << (1 + random.nextInt(LottoEngine.MAX_NUMBER));
+            }
+            long[] tiers = wheel.score(draw);
+            assertTrue(tiers[3] + tiers[4] + tiers[5] + tiers[6] > 0);
+        }
+    }
+
+    @Test
+    public void testGenerate_threeIfFour() throws InterruptedException {
+        int[] pool = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+        WheelGenerator generator = new WheelGenerator(pool, 3, 4);
+        TicketBook wheel = generator.generate(3L, 300, 2);
+        assertTrue(generator.covers(wheel));
+        assertPoolTickets(wheel, pool);
+    }
+
+    @Test
+    public void testGenerate_poolOfSix_isOneTicket() throws InterruptedException {
+        int[] pool = {5, 10, 15, 20, 25, 30};
+        TicketBook wheel = new WheelGenerator(pool, 3, 6).generate(4L, 50, 1);
+        assertEquals(1, wheel.size());
+        assertEquals(LottoEngine.toMask(pool), wheel.getMask(0));
+    }
+
+    @Test
+    public void testCountUncovered_matchesBruteForce() {
+        WheelGenerator generator = new WheelGenerator(POOL, 3, 3);
+        TicketBook partial = new TicketBook();
+        partial.add(new int[]{3, 7, 11, 18, 22, 25});
+        partial.add(new int[]{3, 31, 36, 40, 47, 49});
+
+        int uncovered = 0;
+        for (int a = 0; a < POOL.length; a++) {
+            for (int b = a + 1; b < POOL.length; b++) {
+                for (int c = b + 1; c < POOL.length; c++) {
+                    long triple = (1L << POOL[a]) | (1L << POOL[b]) | (1L << POOL[c]);
+                    boolean hit = false;
+                    for (int i = 0; i < partial.size(); i++) {
+                        hit |= Long.bitCount(partial.getMask(i) & triple) >= 3;
+                    }
+                    if (!hit) {
+                        uncovered++;
+                    }
+                }
+            }
+        }
+        assertEquals(120 - 20 - 10, uncovered);
+        assertEquals(uncovered, generator.countUncovered(partial));
+        assertFalse(generator.covers(partial));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rejectsDuplicates() {
+        new WheelGenerator(new int[]{1, 2, 3, 4, 5, 5, 6}, 3, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rejectsGuaranteeAboveCondition() {
+        new WheelGenerator(POOL, 4, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rejectsTooManyConditions() {
+        int[] all = new int[LottoEngine.MAX_NUMBER];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i + 1;
+        }
+        new WheelGenerator(all, 3, 6);
+    }
+}